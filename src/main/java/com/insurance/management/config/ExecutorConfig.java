@@ -0,0 +1,94 @@
+package com.insurance.management.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executor Configuration - Bounded thread pools for fan-out work
+ * Pool sizes stay well below the Hikari pool so parallel queries cannot starve request threads of connections
+ */
+@Configuration
+@Slf4j
+public class ExecutorConfig {
+
+    /**
+     * Runs the admin overview sub-queries in parallel; a full queue rejects instead of piling up work
+     */
+    @Bean(name = "metricsQueryExecutor")
+    public ThreadPoolTaskExecutor metricsQueryExecutor(
+            @Value("${app.metrics.overview.parallelism:4}") int parallelism,
+            @Value("${app.metrics.overview.queue-capacity:32}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("metrics-query-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        log.info("🧵 Metrics query executor initialized - {} threads, queue {}", parallelism, queueCapacity);
+        return executor;
+    }
+
+    /**
+     * Runs bulk assignment jobs; each job works through its chunks sequentially on one thread
+     */
+    @Bean(name = "assignmentExecutor")
+    public ThreadPoolTaskExecutor assignmentExecutor(
+            @Value("${app.assignment.parallelism:2}") int parallelism,
+            @Value("${app.assignment.queue-capacity:8}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("bulk-assign-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        log.info("🧵 Assignment executor initialized - {} threads, queue {}", parallelism, queueCapacity);
+        return executor;
+    }
+
+    /**
+     * Runs metrics stream broadcasts off the shared scheduler thread;
+     * a tick that arrives while a broadcast is still running is dropped and the next one catches up
+     */
+    @Bean(name = "metricsStreamExecutor")
+    public ThreadPoolTaskExecutor metricsStreamExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("metrics-stream-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        log.info("🧵 Metrics stream executor initialized");
+        return executor;
+    }
+
+    /**
+     * Writes queued metrics stream events to their connections, at most one task per client at a time,
+     * so a client that is slow to read ties up only its own thread
+     */
+    @Bean(name = "metricsStreamSendExecutor")
+    public ThreadPoolTaskExecutor metricsStreamSendExecutor(
+            @Value("${app.metrics.stream.max-clients:50}") int maxClients) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(maxClients);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("metrics-send-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        log.info("🧵 Metrics stream send executor initialized - up to {} threads", maxClients);
+        return executor;
+    }
+}
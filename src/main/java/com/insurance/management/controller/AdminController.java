@@ -2,6 +2,9 @@ package com.insurance.management.controller;
 
 import com.insurance.management.dto.LoginResponse;
 import com.insurance.management.entity.User;
+import com.insurance.management.repository.CustomerJdbcRepository;
+import com.insurance.management.service.BulkAssignmentService;
+import com.insurance.management.service.RequestCoalescer;
 import com.insurance.management.service.UserService;
 
 import lombok.RequiredArgsConstructor;
@@ -12,11 +15,11 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,7 +37,9 @@ import java.util.Optional;
 public class AdminController {
     
     private final UserService userService;
-    private final JdbcTemplate jdbcTemplate;
+    private final CustomerJdbcRepository customerJdbcRepository;
+    private final RequestCoalescer requestCoalescer;
+    private final BulkAssignmentService bulkAssignmentService;
     
     /**
      * GET /api/admin/users
@@ -55,28 +60,14 @@ public class AdminController {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            // Parse sort parameter
-            Sort sortObj = parseSortParameter(sort);
-            Pageable pageable = PageRequest.of(page - 1, size, sortObj); // Convert to 0-based page
-            
-            // Get users with filtering
-            Page<User> usersPage = userService.getAllUsers(role, state, search, pageable);
-            
-            // Convert to response format matching Node.js
-            List<Map<String, Object>> usersData = usersPage.getContent().stream()
-                .map(this::convertUserToResponse)
-                .toList();
+            // Identical concurrent requests share one page load
+            Map<String, Object> usersResult = requestCoalescer.execute("admin/users",
+                    RequestCoalescer.params("role", role, "state", state, "search", search,
+                            "page", page, "size", size, "sort", sort),
+                    () -> loadUsersPage(role, state, search, page, size, sort));
             
             response.put("success", true);
-            response.put("data", usersData);
-            response.put("pagination", Map.of(
-                "current_page", page,
-                "page_size", size,
-                "total_count", usersPage.getTotalElements(),
-                "total_pages", usersPage.getTotalPages()
-            ));
-            
-            log.info("✅ Found {} users matching criteria", usersPage.getTotalElements());
+            response.putAll(usersResult);
             return ResponseEntity.ok(response);
             
         } catch (Exception e) {
@@ -87,6 +78,30 @@ public class AdminController {
         }
     }
     
+    private Map<String, Object> loadUsersPage(String role, String state, String search, int page, int size, String sort) {
+        // Parse sort parameter
+        Sort sortObj = parseSortParameter(sort);
+        Pageable pageable = PageRequest.of(page - 1, size, sortObj); // Convert to 0-based page
+        
+        // Get users with filtering
+        Page<User> usersPage = userService.getAllUsers(role, state, search, pageable);
+        
+        // Convert to response format matching Node.js
+        List<Map<String, Object>> usersData = convertUsersToResponses(usersPage.getContent());
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("data", usersData);
+        result.put("pagination", Map.of(
+            "current_page", page,
+            "page_size", size,
+            "total_count", usersPage.getTotalElements(),
+            "total_pages", usersPage.getTotalPages()
+        ));
+        
+        log.info("✅ Found {} users matching criteria", usersPage.getTotalElements());
+        return result;
+    }
+    
     /**
      * POST /api/admin/users
      * Create a new user
@@ -204,10 +219,11 @@ public class AdminController {
                 }
             }
             
-            // Save updated user (UserService will handle the actual update)
-            // For now, we'll use a simplified approach
+            // Save updated user (also invalidates the cached mobile principal)
+            user = userService.updateUser(user);
+            
             response.put("success", true);
-            response.put("data", convertUserToResponse(user));
+            response.put("data", convertUsersToResponses(List.of(user)).get(0));
             
             log.info("✅ User updated successfully: {}", user.getUsername());
             return ResponseEntity.ok(response);
@@ -325,6 +341,74 @@ public class AdminController {
         }
     }
     
+    /**
+     * POST /api/admin/assignments/distribute
+     * Spread a state's unassigned customers across agents by current load.
+     * dry_run returns the plan; otherwise a background job is started and 202 returned with its id.
+     */
+    @PostMapping("/assignments/distribute")
+    public ResponseEntity<Map<String, Object>> distributeCustomers(@RequestBody BulkAssignmentRequest request) {
+        
+        log.info("🚚 Bulk assignment request - state: {}, agents: {}, dry run: {}",
+                request.getState(), request.getAgentIds(), request.getDryRun());
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            boolean dryRun = Boolean.TRUE.equals(request.getDryRun());
+            Map<String, Object> job = bulkAssignmentService.distribute(request.getState(), request.getAgentIds(),
+                    request.getMaxCustomers(), request.getMaxLoadPerAgent(), dryRun);
+            
+            response.put("success", true);
+            response.put("data", job);
+            return dryRun ? ResponseEntity.ok(response) : ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+            
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (Exception e) {
+            log.error("❌ Error planning bulk assignment for state: {}", request.getState(), e);
+            response.put("success", false);
+            response.put("error", "Failed to distribute customers");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
+    /**
+     * GET /api/admin/assignments/distribute
+     * Recent bulk assignment jobs, newest first
+     */
+    @GetMapping("/assignments/distribute")
+    public ResponseEntity<Map<String, Object>> getDistributionJobs() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", bulkAssignmentService.listJobs());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * GET /api/admin/assignments/distribute/:jobId
+     * Progress of a bulk assignment job
+     */
+    @GetMapping("/assignments/distribute/{jobId}")
+    public ResponseEntity<Map<String, Object>> getDistributionJob(@PathVariable String jobId) {
+        Map<String, Object> response = new HashMap<>();
+        Optional<Map<String, Object>> job = bulkAssignmentService.getJob(jobId);
+        if (job.isEmpty()) {
+            response.put("success", false);
+            response.put("error", "Distribution job not found");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        response.put("success", true);
+        response.put("data", job.get());
+        return ResponseEntity.ok(response);
+    }
+    
     // Helper methods
     
     private Sort parseSortParameter(String sort) {
@@ -379,7 +463,26 @@ public class AdminController {
         }
     }
     
-    private Map<String, Object> convertUserToResponse(User user) {
+    /**
+     * Convert a page of users, loading assignment statistics for all of them in one grouped query
+     */
+    private List<Map<String, Object>> convertUsersToResponses(List<User> users) {
+        Map<Long, CustomerJdbcRepository.AssignmentStats> stats;
+        try {
+            stats = customerJdbcRepository.findAssignmentStatsForUsers(users.stream().map(User::getId).toList());
+        } catch (Exception e) {
+            log.warn("Failed to fetch assignment statistics for {} users: {}", users.size(), e.getMessage());
+            stats = Map.of();
+        }
+        
+        List<Map<String, Object>> usersData = new ArrayList<>(users.size());
+        for (User user : users) {
+            usersData.add(convertUserToResponse(user, stats.getOrDefault(user.getId(), CustomerJdbcRepository.AssignmentStats.EMPTY)));
+        }
+        return usersData;
+    }
+    
+    private Map<String, Object> convertUserToResponse(User user, CustomerJdbcRepository.AssignmentStats stats) {
         Map<String, Object> userMap = new HashMap<>();
         userMap.put("id", user.getId());
         userMap.put("username", user.getUsername());
@@ -397,33 +500,13 @@ public class AdminController {
         userMap.put("updated_at", user.getUpdatedAt());
         userMap.put("last_login", user.getLastLoginAt());
         
-        // Add customer assignment statistics
-        try {
-            // Query main database for assignment statistics
-            String assignedCountQuery = "SELECT COUNT(*) FROM customers WHERE assigned_to = ? AND processing_status IN ('ASSIGNED', 'IN_PROGRESS', 'COMPLETED')";
-            String completedCountQuery = "SELECT COUNT(*) FROM customers WHERE assigned_to = ? AND processing_status = 'COMPLETED'";
-            String todayCountQuery = "SELECT COUNT(*) FROM customers WHERE assigned_to = ? AND (CAST(last_status_updated AS DATE) = CAST(GETDATE() AS DATE) OR CAST(updated_at AS DATE) = CAST(GETDATE() AS DATE))";
-            
-            Long assignedCount = jdbcTemplate.queryForObject(assignedCountQuery, Long.class, user.getId().toString());
-            Long completedCount = jdbcTemplate.queryForObject(completedCountQuery, Long.class, user.getId().toString());
-            Long todayCount = jdbcTemplate.queryForObject(todayCountQuery, Long.class, user.getId().toString());
-            
-            // Map to frontend field names
-            userMap.put("assigned_count", assignedCount != null ? assignedCount : 0);
-            userMap.put("assigned", assignedCount != null ? assignedCount : 0); // For frontend compatibility
-            userMap.put("completed_count", completedCount != null ? completedCount : 0);
-            userMap.put("completed", completedCount != null ? completedCount : 0); // For frontend compatibility  
-            userMap.put("updated_today", todayCount != null ? todayCount : 0);
-            userMap.put("today", todayCount != null ? todayCount : 0); // For frontend compatibility
-        } catch (Exception e) {
-            log.warn("Failed to fetch assignment statistics for user {}: {}", user.getId(), e.getMessage());
-            userMap.put("assigned_count", 0);
-            userMap.put("assigned", 0);
-            userMap.put("completed_count", 0);
-            userMap.put("completed", 0);
-            userMap.put("updated_today", 0);
-            userMap.put("today", 0);
-        }
+        // Customer assignment statistics - map to frontend field names
+        userMap.put("assigned_count", stats.getAssignedCount());
+        userMap.put("assigned", stats.getAssignedCount()); // For frontend compatibility
+        userMap.put("completed_count", stats.getCompletedCount());
+        userMap.put("completed", stats.getCompletedCount()); // For frontend compatibility  
+        userMap.put("updated_today", stats.getTodayCount());
+        userMap.put("today", stats.getTodayCount()); // For frontend compatibility
         
         return userMap;
     }
@@ -525,4 +608,23 @@ public class AdminController {
         public String getNewPin() { return newPin; }
         public void setNewPin(String newPin) { this.newPin = newPin; }
     }
+    
+    public static class BulkAssignmentRequest {
+        private String state;
+        private List<Long> agentIds;
+        private Integer maxCustomers;
+        private Integer maxLoadPerAgent;
+        private Boolean dryRun = false;
+        
+        public String getState() { return state; }
+        public void setState(String state) { this.state = state; }
+        public List<Long> getAgentIds() { return agentIds; }
+        public void setAgentIds(List<Long> agentIds) { this.agentIds = agentIds; }
+        public Integer getMaxCustomers() { return maxCustomers; }
+        public void setMaxCustomers(Integer maxCustomers) { this.maxCustomers = maxCustomers; }
+        public Integer getMaxLoadPerAgent() { return maxLoadPerAgent; }
+        public void setMaxLoadPerAgent(Integer maxLoadPerAgent) { this.maxLoadPerAgent = maxLoadPerAgent; }
+        public Boolean getDryRun() { return dryRun; }
+        public void setDryRun(Boolean dryRun) { this.dryRun = dryRun; }
+    }
 }
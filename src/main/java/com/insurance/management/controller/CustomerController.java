@@ -1,17 +1,23 @@
 package com.insurance.management.controller;
 
 import com.insurance.management.entity.Customer;
+import com.insurance.management.entity.User;
+import com.insurance.management.service.CustomerSearchService;
 import com.insurance.management.service.CustomerService;
+import com.insurance.management.util.MobileTokenUtil;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +34,8 @@ import java.util.Map;
 public class CustomerController {
     
     private final CustomerService customerService;
+    private final CustomerSearchService searchService;
+    private final MobileTokenUtil tokenUtil;
     
     /**
      * GET /api/customers
@@ -72,6 +80,128 @@ public class CustomerController {
         }
     }
     
+    /**
+     * GET /api/customers/search?q=
+     * Ranked search by name, mobile, registration, chassis or engine number.
+     * Requires a web token; the state/assigned_to filters are narrowed to the caller's scope
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, Object>> searchCustomers(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String state,
+            @RequestParam(name = "assigned_to", required = false) Long assignedTo,
+            HttpServletRequest request) {
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        User user = tokenUtil.validateWebToken(tokenUtil.extractTokenFromRequest(request));
+        if (user == null) {
+            response.put("success", false);
+            response.put("error", "Invalid or expired token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        SearchScope scope = SearchScope.of(user, state, assignedTo);
+        
+        log.info("🔍 Customer search request by {} - State: {}, AssignedTo: {}, Page: {}",
+                user.getUsername(), scope.getState(), scope.getAssignedTo(), page);
+        
+        try {
+            CustomerSearchService.SearchResult result = searchService.search(query, scope.getAssignedTo(), scope.getState(), page, size);
+            putSearchResult(response, result);
+            
+            log.info("✅ Search found {} customers", result.getTotal());
+            return ResponseEntity.ok(response);
+            
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+            
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+            
+        } catch (Exception e) {
+            log.error("❌ Error searching customers", e);
+            response.put("success", false);
+            response.put("error", "Failed to search customers");
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+    
+    /**
+     * GET /api/customers/lookup?suffix=
+     * Customers whose mobile or registration number ends with the given digits/characters.
+     * Requires a web token; the state/assigned_to filters are narrowed to the caller's scope
+     */
+    @GetMapping("/lookup")
+    public ResponseEntity<Map<String, Object>> lookupCustomersBySuffix(
+            @RequestParam String suffix,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String state,
+            @RequestParam(name = "assigned_to", required = false) Long assignedTo,
+            HttpServletRequest request) {
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        User user = tokenUtil.validateWebToken(tokenUtil.extractTokenFromRequest(request));
+        if (user == null) {
+            response.put("success", false);
+            response.put("error", "Invalid or expired token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        SearchScope scope = SearchScope.of(user, state, assignedTo);
+        
+        log.info("🔍 Customer suffix lookup request by {} - State: {}, AssignedTo: {}",
+                user.getUsername(), scope.getState(), scope.getAssignedTo());
+        
+        try {
+            CustomerSearchService.SearchResult result = searchService.lookupBySuffix(suffix, scope.getAssignedTo(), scope.getState(), size);
+            putSearchResult(response, result);
+            
+            log.info("✅ Suffix lookup found {} customers", result.getTotal());
+            return ResponseEntity.ok(response);
+            
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+            
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+            
+        } catch (Exception e) {
+            log.error("❌ Error looking up customers by suffix", e);
+            response.put("success", false);
+            response.put("error", "Failed to look up customers");
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+    
+    private void putSearchResult(Map<String, Object> response, CustomerSearchService.SearchResult result) {
+        List<Map<String, Object>> hits = new ArrayList<>();
+        for (CustomerSearchService.Hit hit : result.getHits()) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("customer", hit.getCustomer());
+            item.put("score", hit.getScore());
+            item.put("matched_field", hit.getMatchedField());
+            hits.add(item);
+        }
+        
+        response.put("success", true);
+        response.put("data", hits);
+        response.put("total", result.getTotal());
+        response.put("currentPage", result.getPage());
+        response.put("pageSize", result.getPageSize());
+        response.put("hasNext", result.isHasNext());
+        response.put("truncated", result.isTruncated());
+    }
+    
     private Sort parseSortParameter(String sort) {
         try {
             String[] parts = sort.split(" ");
@@ -100,4 +230,39 @@ public class CustomerController {
                 return snakeCase;
         }
     }
+    
+    /**
+     * Search filters narrowed to what the authenticated user may see:
+     * admins filter freely, supervisors, managers and team leads stay within their
+     * location state, and everyone else only sees customers assigned to them
+     */
+    private static class SearchScope {
+        private final String state;
+        private final Long assignedTo;
+        
+        private SearchScope(String state, Long assignedTo) {
+            this.state = state;
+            this.assignedTo = assignedTo;
+        }
+        
+        static SearchScope of(User user, String state, Long assignedTo) {
+            User.UserRole role = user.getUserRole() != null ? user.getUserRole() : User.UserRole.USER;
+            switch (role) {
+                case ADMIN:
+                    return new SearchScope(state, assignedTo);
+                case SUPERVISOR:
+                case MANAGER:
+                case TEAM_LEAD:
+                    if (user.getLocationState() != null && !user.getLocationState().isBlank()) {
+                        return new SearchScope(user.getLocationState(), assignedTo);
+                    }
+                    return new SearchScope(null, user.getId());
+                default:
+                    return new SearchScope(null, user.getId());
+            }
+        }
+        
+        public String getState() { return state; }
+        public Long getAssignedTo() { return assignedTo; }
+    }
 }
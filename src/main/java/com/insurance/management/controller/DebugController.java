@@ -2,7 +2,19 @@ package com.insurance.management.controller;
 
 import com.insurance.management.entity.User;
 import com.insurance.management.service.UserService;
+import com.insurance.management.service.CustomerCountCache;
+import com.insurance.management.service.UserAnalyticsStore;
+import com.insurance.management.service.UserDataVersions;
 import com.insurance.management.service.CustomerService;
+import com.insurance.management.service.CustomerSearchService;
+import com.insurance.management.service.MetricsService;
+import com.insurance.management.service.MetricsSnapshotService;
+import com.insurance.management.service.MetricsStreamService;
+import com.insurance.management.service.QueryPlanService;
+import com.insurance.management.service.RequestCoalescer;
+import com.insurance.management.service.UserDirectory;
+import com.insurance.management.service.UserPrincipalCache;
+import com.insurance.management.util.LatencyBenchmark;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +40,17 @@ public class DebugController {
     
     private final UserService userService;
     private final CustomerService customerService;
+    private final UserPrincipalCache principalCache;
+    private final CustomerCountCache countCache;
+    private final UserAnalyticsStore analyticsStore;
+    private final UserDataVersions dataVersions;
+    private final MetricsService metricsService;
+    private final MetricsSnapshotService snapshotService;
+    private final MetricsStreamService streamService;
+    private final RequestCoalescer requestCoalescer;
+    private final UserDirectory userDirectory;
+    private final QueryPlanService queryPlanService;
+    private final CustomerSearchService searchService;
     
     /**
      * GET /api/debug/assignments
@@ -200,4 +223,246 @@ public class DebugController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
+    
+    /**
+     * GET /api/debug/principal-cache
+     * Mobile token principal cache statistics (hit/miss/eviction counters)
+     */
+    @GetMapping("/principal-cache")
+    public ResponseEntity<Map<String, Object>> getPrincipalCacheStats() {
+        
+        log.info("👤 Debug principal cache stats request");
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", principalCache.getStats());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * GET /api/debug/count-cache
+     * Per-user customer count cache statistics (used by slice-mode mobile lists)
+     */
+    @GetMapping("/count-cache")
+    public ResponseEntity<Map<String, Object>> getCountCacheStats() {
+        
+        log.info("🔢 Debug count cache stats request");
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", countCache.getStats());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * GET /api/debug/analytics-store
+     * Incrementally maintained mobile analytics counters statistics
+     */
+    @GetMapping("/analytics-store")
+    public ResponseEntity<Map<String, Object>> getAnalyticsStoreStats() {
+        
+        log.info("📊 Debug analytics store stats request");
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", analyticsStore.getStats());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * GET /api/debug/data-versions
+     * Per-user data versions behind the mobile ETags
+     */
+    @GetMapping("/data-versions")
+    public ResponseEntity<Map<String, Object>> getDataVersionStats() {
+        
+        log.info("🏷️ Debug data versions stats request");
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", dataVersions.getStats());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * GET /api/debug/metrics-snapshot
+     * Admin overview snapshot statistics
+     */
+    @GetMapping("/metrics-snapshot")
+    public ResponseEntity<Map<String, Object>> getMetricsSnapshotStats() {
+        
+        log.info("📸 Debug metrics snapshot stats request");
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", snapshotService.getStats());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * GET /api/debug/metrics-stream
+     * Live admin metrics stream statistics
+     */
+    @GetMapping("/metrics-stream")
+    public ResponseEntity<Map<String, Object>> getMetricsStreamStats() {
+        
+        log.info("📡 Debug metrics stream stats request");
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", streamService.getStats());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * GET /api/debug/coalescing
+     * Request coalescing statistics per endpoint
+     */
+    @GetMapping("/coalescing")
+    public ResponseEntity<Map<String, Object>> getCoalescingStats() {
+        
+        log.info("🔀 Debug request coalescing stats request");
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", requestCoalescer.getStats());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * GET /api/debug/user-directory
+     * In-memory user directory statistics
+     */
+    @GetMapping("/user-directory")
+    public ResponseEntity<Map<String, Object>> getUserDirectoryStats() {
+        
+        log.info("📇 Debug user directory stats request");
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", userDirectory.getStats());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * GET /api/debug/query-plans
+     * Estimated plans for the hot repository queries - checks each uses an index seek (SQL Server only)
+     */
+    @GetMapping("/query-plans")
+    public ResponseEntity<Map<String, Object>> getQueryPlans() {
+        
+        log.info("🔎 Debug query plans request");
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            response.put("success", true);
+            response.put("data", queryPlanService.inspectHotQueries());
+            return ResponseEntity.ok(response);
+            
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+            
+        } catch (Exception e) {
+            log.error("❌ Error capturing query plans", e);
+            response.put("success", false);
+            response.put("error", "Failed to capture query plans: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
+    /**
+     * GET /api/debug/customer-search
+     * Customer search index and query statistics
+     */
+    @GetMapping("/customer-search")
+    public ResponseEntity<Map<String, Object>> getCustomerSearchStats() {
+        
+        log.info("🔍 Debug customer search stats request");
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", searchService.getStats());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * GET /api/debug/benchmark/allocated
+     * Compare the legacy three-query allocated-customers path (page + COUNT + status breakdown)
+     * against the fused single-round-trip query for one user
+     */
+    @GetMapping("/benchmark/allocated")
+    public ResponseEntity<Map<String, Object>> benchmarkAllocatedCustomers(
+            @RequestParam(name = "user_id") Long userId,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(name = "include_closed", defaultValue = "false") boolean includeClosed,
+            @RequestParam(defaultValue = "20") int iterations) {
+        
+        log.info("⏱️ Debug allocated-customers benchmark for user ID: {} ({} iterations)", userId, iterations);
+        
+        Map<String, Object> response = new HashMap<>();
+        try {
+            int runs = Math.max(1, Math.min(iterations, 200));
+            
+            Map<String, Object> legacy = LatencyBenchmark.run(2, runs, () -> {
+                customerService.getAllocatedCustomers(userId, 1, size, includeClosed).getTotalElements();
+                customerService.getStatusBreakdownForUser(userId);
+            });
+            Map<String, Object> fused = LatencyBenchmark.run(2, runs, () ->
+                    customerService.getAllocatedCustomersWithBreakdown(userId, 1, size, includeClosed));
+            
+            double legacyAvg = (Double) legacy.get("avg_ms");
+            double fusedAvg = (Double) fused.get("avg_ms");
+            
+            Map<String, Object> data = new HashMap<>();
+            data.put("legacy_three_queries", legacy);
+            data.put("fused_single_round_trip", fused);
+            data.put("avg_reduction_percent", legacyAvg > 0 
+                    ? Math.round((legacyAvg - fusedAvg) / legacyAvg * 10000) / 100.0 : 0.0);
+            
+            response.put("success", true);
+            response.put("data", data);
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("❌ Allocated-customers benchmark failed", e);
+            response.put("success", false);
+            response.put("error", "Benchmark failed: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
+    /**
+     * GET /api/debug/benchmark/states-summary
+     * Regression benchmark for the admin states summary aggregate - run it against a
+     * production-sized customers table and compare across releases
+     */
+    @GetMapping("/benchmark/states-summary")
+    public ResponseEntity<Map<String, Object>> benchmarkStatesSummary(
+            @RequestParam(defaultValue = "20") int iterations) {
+        
+        log.info("⏱️ Debug states-summary benchmark ({} iterations)", iterations);
+        
+        Map<String, Object> response = new HashMap<>();
+        try {
+            int runs = Math.max(1, Math.min(iterations, 200));
+            
+            Map<String, Object> data = new HashMap<>();
+            data.put("customer_rows", customerService.getTotalCustomerCount());
+            data.put("states", metricsService.getStatesSummary().size());
+            data.put("grouped_aggregate", LatencyBenchmark.run(2, runs, metricsService::getStatesSummary));
+            
+            response.put("success", true);
+            response.put("data", data);
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("❌ States-summary benchmark failed", e);
+            response.put("success", false);
+            response.put("error", "Benchmark failed: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
 }
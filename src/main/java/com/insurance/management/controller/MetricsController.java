@@ -1,12 +1,19 @@
 package com.insurance.management.controller;
 
+import com.insurance.management.service.DailyActivityRollupService;
+import com.insurance.management.service.LeaderboardService;
 import com.insurance.management.service.MetricsService;
+import com.insurance.management.service.MetricsSnapshotService;
+import com.insurance.management.service.MetricsStreamService;
+import com.insurance.management.service.RequestCoalescer;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
 import java.util.List;
@@ -24,23 +31,31 @@ import java.util.Map;
 public class MetricsController {
     
     private final MetricsService metricsService;
+    private final LeaderboardService leaderboardService;
+    private final MetricsSnapshotService snapshotService;
+    private final DailyActivityRollupService rollupService;
+    private final MetricsStreamService streamService;
+    private final RequestCoalescer requestCoalescer;
     
     /**
      * GET /api/admin/metrics/overview
      * Get global overview metrics
-     * Matches Node.js implementation exactly
+     * Served from the in-memory snapshot; refresh=true forces a rebuild
      */
     @GetMapping("/overview")
     public ResponseEntity<Map<String, Object>> getOverviewMetrics(
             @RequestParam(required = false) String from,
-            @RequestParam(required = false) String to) {
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "false") boolean refresh) {
         
         log.info("📊 Admin overview metrics request - From: {}, To: {}", from, to);
         
         Map<String, Object> response = new HashMap<>();
         
         try {
-            Map<String, Object> overviewData = metricsService.getOverviewMetrics(from, to);
+            Map<String, Object> overviewData = requestCoalescer.execute("metrics/overview",
+                    RequestCoalescer.params("from", from, "to", to, "refresh", refresh),
+                    () -> snapshotService.getOverview(from, to, refresh));
             
             response.put("success", true);
             response.put("data", overviewData);
@@ -86,6 +101,10 @@ public class MetricsController {
             log.info("✅ State metrics fetched successfully for: {}", state);
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             log.error("❌ Error fetching state metrics for: {}", state, e);
             response.put("success", false);
@@ -125,6 +144,55 @@ public class MetricsController {
         }
     }
     
+    /**
+     * GET /api/admin/metrics/stream
+     * Live overview over Server-Sent Events: a "snapshot" event on connect, then "delta" events
+     * carrying only the sections that changed (status counts, per-state progress, top users)
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamMetrics() {
+        
+        log.info("📡 Admin metrics stream request");
+        
+        try {
+            return ResponseEntity.ok(streamService.subscribe());
+            
+        } catch (IllegalStateException e) {
+            log.warn("⚠️ Metrics stream rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "30").build();
+        }
+    }
+    
+    /**
+     * POST /api/admin/metrics/rollup/backfill
+     * Seed the daily activity rollup for days it has no rows for yet
+     */
+    @PostMapping("/rollup/backfill")
+    public ResponseEntity<Map<String, Object>> backfillRollup(
+            @RequestParam(defaultValue = "90") Integer days) {
+        
+        log.info("📊 Admin rollup backfill request - Days: {}", days);
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            response.put("success", true);
+            response.put("data", rollupService.backfill(days));
+            return ResponseEntity.ok(response);
+            
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+            
+        } catch (Exception e) {
+            log.error("❌ Error backfilling daily activity rollup", e);
+            response.put("success", false);
+            response.put("error", "Failed to backfill rollup: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
     /**
      * GET /api/admin/metrics/states
      * Get available states
@@ -154,6 +222,42 @@ public class MetricsController {
         }
     }
     
+    /**
+     * GET /api/admin/metrics/leaderboard
+     * Top agents by assigned, completed or today's updates, optionally for one state
+     */
+    @GetMapping("/leaderboard")
+    public ResponseEntity<Map<String, Object>> getLeaderboard(
+            @RequestParam(required = false) String state,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(name = "sort_by", defaultValue = "assigned") String sortBy) {
+        
+        log.info("🏆 Admin leaderboard request - State: {}, Limit: {}, Sort: {}", state, limit, sortBy);
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            List<Map<String, Object>> leaderboard = leaderboardService.getTopUsers(
+                    state, limit, LeaderboardService.SortBy.fromValue(sortBy));
+            
+            response.put("success", true);
+            response.put("data", leaderboard);
+            
+            log.info("✅ Leaderboard fetched successfully - {} agents", leaderboard.size());
+            return ResponseEntity.ok(response);
+            
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            log.error("❌ Error fetching leaderboard", e);
+            response.put("success", false);
+            response.put("error", "Failed to fetch leaderboard: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
     /**
      * GET /api/admin/metrics/users  
      * Get user-related metrics
@@ -167,7 +271,8 @@ public class MetricsController {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            Map<String, Object> userMetrics = metricsService.getUserMetrics();
+            Map<String, Object> userMetrics = requestCoalescer.execute("metrics/users", null,
+                    metricsService::getUserMetrics);
             
             response.put("success", true);
             response.put("data", userMetrics);
@@ -1,22 +1,35 @@
 package com.insurance.management.controller;
 
 import com.insurance.management.dto.CustomerDTO;
+import com.insurance.management.dto.CustomerListView;
 import com.insurance.management.entity.Customer;
 import com.insurance.management.entity.User;
+import com.insurance.management.repository.CustomerJdbcRepository;
+import com.insurance.management.service.CustomerCountCache;
+import com.insurance.management.service.CustomerSearchService;
 import com.insurance.management.service.CustomerService;
+import com.insurance.management.service.KeysetPage;
+import com.insurance.management.service.UserDataVersions;
 import com.insurance.management.service.UserService;
 import com.insurance.management.util.MobileTokenUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -35,6 +48,14 @@ public class MobileApiController {
     private final CustomerService customerService;
     private final UserService userService;
     private final MobileTokenUtil tokenUtil;
+    private final UserDataVersions dataVersions;
+    private final CustomerSearchService searchService;
+
+    @Value("${app.mobile.fused-allocated-query:true}")
+    private boolean fusedAllocatedQuery;
+
+    @Value("${app.mobile.batch-status.max-items:200}")
+    private int batchStatusMaxItems;
 
     /**
      * GET /api/mobile/customers/allocated
@@ -46,6 +67,8 @@ public class MobileApiController {
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "50") int size,
             @RequestParam(name = "include_closed", defaultValue = "false") boolean includeClosed,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean slice,
             HttpServletRequest request) {
         
         log.info("📱 Mobile allocated customers request received");
@@ -57,24 +80,69 @@ public class MobileApiController {
                     .body(createErrorResponse("Invalid or expired authentication token"));
         }
         
+        String pagingError = validatePaging(page, size);
+        if (pagingError != null) {
+            return ResponseEntity.badRequest().body(createErrorResponse(pagingError));
+        }
+        
+        // Answer unchanged polls before touching the customers table
+        String etag = dataVersions.etag(user.getId(), "allocated|" + page + "|" + size + "|" + includeClosed +
+                "|" + cursor + "|" + slice + "|" + user.getUsername() + "|" + user.getLocationState());
+        if (dataVersions.isNotModified(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return notModified(etag);
+        }
+        
         log.info("📋 Fetching {} customers for user: {} (ID: {})", 
                 includeClosed ? "ALL" : "OPEN", user.getUsername(), user.getId());
         
-        // Get customers with pagination
-        Page<Customer> customersPage = customerService.getAllocatedCustomers(
-                user.getId(), page, size, includeClosed);
+        // Get customers - keyset pagination when the client sends a cursor (empty = first page)
+        List<CustomerDTO.Response> customers;
+        CustomerDTO.PaginatedResponse.Pagination pagination;
+        List<Object[]> statusBreakdownData = null;
+        if (cursor != null) {
+            KeysetPage<CustomerListView> customersPage;
+            try {
+                customersPage = customerService.getAllocatedCustomersAfter(user.getId(), cursor, size, includeClosed);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Invalid cursor"));
+            }
+            customers = convertViewsToResponses(customersPage.getContent());
+            pagination = buildPagination(customersPage);
+        } else if (slice) {
+            Slice<CustomerListView> customersSlice = customerService.getAllocatedCustomersSlice(
+                    user.getId(), page, size, includeClosed);
+            customers = convertViewsToResponses(customersSlice.getContent());
+            pagination = buildPagination(customersSlice,
+                    customerService.getCachedAllocatedCustomersCount(user.getId(), includeClosed));
+        } else if (fusedAllocatedQuery) {
+            // Page, total and status breakdown in a single round trip
+            CustomerJdbcRepository.AllocatedPageResult result = customerService.getAllocatedCustomersWithBreakdown(
+                    user.getId(), page, size, includeClosed);
+            customers = result.getContent().stream()
+                    .map(customer -> convertViewToResponse(CustomerListView.of(customer)))
+                    .collect(Collectors.toList());
+            pagination = buildPagination(new PageImpl<>(customers, PageRequest.of(page - 1, size), result.getTotalCount()));
+            statusBreakdownData = result.getStatusBreakdown();
+        } else {
+            Page<CustomerListView> customersPage = customerService.getAllocatedCustomers(
+                    user.getId(), page, size, includeClosed);
+            customers = convertViewsToResponses(customersPage.getContent());
+            pagination = buildPagination(customersPage);
+        }
         
         // Get status breakdown
-        List<Object[]> statusBreakdownData = customerService.getStatusBreakdownForUser(user.getId());
+        if (statusBreakdownData == null) {
+            statusBreakdownData = customerService.getStatusBreakdownForUser(user.getId());
+        }
         
         // Convert to response format
         CustomerDTO.PaginatedResponse response = buildPaginatedResponse(
-                customersPage, user, includeClosed, statusBreakdownData);
+                customers, pagination, user, includeClosed, statusBreakdownData);
         
         log.info("✅ Found {} {} allocated customers", 
-                customersPage.getContent().size(), includeClosed ? "total" : "OPEN");
+                customers.size(), includeClosed ? "total" : "OPEN");
         
-        return ResponseEntity.ok(response);
+        return okWithETag(etag).body(response);
     }
 
     /**
@@ -122,6 +190,47 @@ public class MobileApiController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * POST /api/mobile/customers/status/batch
+     * Replay a queue of status updates made offline in one request and one transaction
+     * Each item follows the same rules as PATCH /customers/{id}/status and gets its own result
+     */
+    @PostMapping("/customers/status/batch")
+    public ResponseEntity<CustomerDTO.BatchStatusUpdateResponse> updateCustomerStatusBatch(
+            @Valid @RequestBody CustomerDTO.BatchStatusUpdateRequest request,
+            HttpServletRequest httpRequest) {
+        
+        log.info("📦 Mobile batch status update request received - {} items", request.getUpdates().size());
+        
+        // Extract and validate token
+        User user = tokenUtil.validateTokenAndGetUser(httpRequest);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(createBatchStatusUpdateErrorResponse("Invalid or expired authentication token"));
+        }
+        
+        if (request.getUpdates().size() > batchStatusMaxItems) {
+            return ResponseEntity.badRequest()
+                    .body(createBatchStatusUpdateErrorResponse("Too many updates in one batch (max " + batchStatusMaxItems + ")"));
+        }
+        
+        List<CustomerDTO.BatchStatusUpdateResponse.ItemResult> results = 
+                customerService.updateCustomerStatusBatch(user.getId(), request.getUpdates());
+        
+        int updatedCount = (int) results.stream().filter(CustomerDTO.BatchStatusUpdateResponse.ItemResult::isSuccess).count();
+        
+        CustomerDTO.BatchStatusUpdateResponse.BatchStatusUpdateData data = new CustomerDTO.BatchStatusUpdateResponse.BatchStatusUpdateData();
+        data.setResults(results);
+        data.setUpdatedCount(updatedCount);
+        data.setFailedCount(results.size() - updatedCount);
+        
+        CustomerDTO.BatchStatusUpdateResponse response = new CustomerDTO.BatchStatusUpdateResponse();
+        response.setMessage(updatedCount + " of " + results.size() + " status updates applied");
+        response.setData(data);
+        
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * POST /api/mobile/customers/submit-individual
      * NEW ENDPOINT: Submit individual customer with immediate unassignment
@@ -189,6 +298,8 @@ public class MobileApiController {
     public ResponseEntity<CustomerDTO.PaginatedResponse> getSubmittedCustomers(
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean slice,
             HttpServletRequest request) {
         
         log.info("📱 Mobile submissions request received");
@@ -200,23 +311,53 @@ public class MobileApiController {
                     .body(createErrorResponse("Invalid or expired authentication token"));
         }
         
+        String pagingError = validatePaging(page, size);
+        if (pagingError != null) {
+            return ResponseEntity.badRequest().body(createErrorResponse(pagingError));
+        }
+        
+        String etag = dataVersions.etag(user.getId(), "submissions|" + page + "|" + size + "|" + cursor +
+                "|" + slice + "|" + user.getUsername() + "|" + user.getLocationState());
+        if (dataVersions.isNotModified(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return notModified(etag);
+        }
+        
         log.info("📋 Fetching submitted customers for user: {} (ID: {})", 
                 user.getUsername(), user.getId());
         
         // Get closed/submitted customers for this user
-        Page<Customer> customersPage = customerService.getSubmittedCustomers(
-                user.getId(), page, size);
+        List<CustomerDTO.Response> customers;
+        CustomerDTO.PaginatedResponse.Pagination pagination;
+        if (cursor != null) {
+            KeysetPage<CustomerListView> customersPage;
+            try {
+                customersPage = customerService.getSubmittedCustomersAfter(user.getId(), cursor, size);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Invalid cursor"));
+            }
+            customers = convertViewsToResponses(customersPage.getContent());
+            pagination = buildPagination(customersPage);
+        } else if (slice) {
+            Slice<CustomerListView> customersSlice = customerService.getSubmittedCustomersSlice(user.getId(), page, size);
+            customers = convertViewsToResponses(customersSlice.getContent());
+            pagination = buildPagination(customersSlice,
+                    customerService.getCachedSubmittedCustomersCount(user.getId()));
+        } else {
+            Page<CustomerListView> customersPage = customerService.getSubmittedCustomers(user.getId(), page, size);
+            customers = convertViewsToResponses(customersPage.getContent());
+            pagination = buildPagination(customersPage);
+        }
         
         // Get status breakdown for submitted customers
         List<Object[]> statusBreakdownData = customerService.getStatusBreakdownForSubmittedCustomers(user.getId());
         
         // Convert to response format
         CustomerDTO.PaginatedResponse response = buildSubmissionsResponse(
-                customersPage, user, statusBreakdownData);
+                customers, pagination, user, statusBreakdownData);
         
-        log.info("✅ Found {} submitted customers", customersPage.getContent().size());
+        log.info("✅ Found {} submitted customers", customers.size());
         
-        return ResponseEntity.ok(response);
+        return okWithETag(etag).body(response);
     }
 
     /**
@@ -237,6 +378,11 @@ public class MobileApiController {
                     .body(createAnalyticsErrorResponse("Invalid or expired authentication token"));
         }
         
+        String etag = dataVersions.etag(user.getId(), "analytics");
+        if (dataVersions.isNotModified(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return notModified(etag);
+        }
+        
         log.info("📊 Fetching analytics for user: {} (ID: {})", user.getUsername(), user.getId());
         
         // Get analytics data from customer service
@@ -249,6 +395,64 @@ public class MobileApiController {
         
         log.info("✅ Analytics data loaded successfully for user: {}", user.getUsername());
         
+        return okWithETag(etag).body(response);
+    }
+
+    /**
+     * GET /api/mobile/customers/changes?since=
+     * Delta sync - customers created or changed since the server-issued watermark, plus tombstones for
+     * customers the user closed. reset=true means a full sync: the client replaces its list with these pages
+     */
+    @GetMapping("/customers/changes")
+    public ResponseEntity<CustomerDTO.SyncResponse> getCustomerChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "200") int size,
+            HttpServletRequest request) {
+        
+        log.info("📱 Mobile delta sync request received");
+        
+        // Extract and validate token
+        User user = tokenUtil.validateTokenAndGetUser(request);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(createSyncErrorResponse());
+        }
+        
+        KeysetPage<CustomerListView> changes;
+        try {
+            changes = customerService.getCustomerChangesSince(user.getId(), since, Math.max(1, Math.min(size, 500)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createSyncErrorResponse());
+        }
+        
+        // Rows still assigned to the user are upserts; anything else left the user's list
+        List<CustomerDTO.Response> changed = new ArrayList<>();
+        List<CustomerDTO.SyncResponse.Tombstone> removed = new ArrayList<>();
+        for (CustomerListView customer : changes.getContent()) {
+            if (user.getId().equals(customer.getAssignedTo())) {
+                changed.add(convertViewToResponse(customer));
+            } else {
+                CustomerDTO.SyncResponse.Tombstone tombstone = new CustomerDTO.SyncResponse.Tombstone();
+                tombstone.setCustomerId(customer.getId());
+                tombstone.setReason(Boolean.TRUE.equals(customer.getIsClosed()) ? "closed" : "unassigned");
+                tombstone.setRemovedAt(customer.getUpdatedAt());
+                removed.add(tombstone);
+            }
+        }
+        
+        CustomerDTO.SyncResponse.SyncData data = new CustomerDTO.SyncResponse.SyncData();
+        data.setChanged(changed);
+        data.setRemoved(removed);
+        data.setNextSince(changes.getNextCursor());
+        data.setHasMore(changes.isHasNext());
+        data.setReset(changes.isReset());
+        data.setServerTime(LocalDateTime.now());
+        
+        CustomerDTO.SyncResponse response = new CustomerDTO.SyncResponse();
+        response.setData(data);
+        
+        log.info("✅ Delta sync: {} changed, {} removed for user: {}", changed.size(), removed.size(), user.getUsername());
+        
         return ResponseEntity.ok(response);
     }
 
@@ -262,6 +466,8 @@ public class MobileApiController {
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "50") int size,
             @RequestParam(name = "days_ahead", defaultValue = "7") int daysAhead,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean slice,
             HttpServletRequest request) {
         
         log.info("📱 Mobile follow-up customers request received");
@@ -273,43 +479,223 @@ public class MobileApiController {
                     .body(createErrorResponse("Invalid or expired authentication token"));
         }
         
+        String pagingError = validatePaging(page, size);
+        if (pagingError != null) {
+            return ResponseEntity.badRequest().body(createErrorResponse(pagingError));
+        }
+        
         log.info("📅 Fetching follow-up customers for user: {} (ID: {}) due within {} days", 
                 user.getUsername(), user.getId(), daysAhead);
         
         // Get follow-up customers
-        Page<Customer> customersPage = customerService.getFollowUpCustomers(
-                user.getId(), page, size, daysAhead);
+        List<CustomerDTO.Response> customers;
+        CustomerDTO.PaginatedResponse.Pagination pagination;
+        if (cursor != null) {
+            KeysetPage<CustomerListView> customersPage;
+            try {
+                customersPage = customerService.getFollowUpCustomersAfter(user.getId(), cursor, size, daysAhead);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Invalid cursor"));
+            }
+            customers = convertViewsToResponses(customersPage.getContent());
+            pagination = buildPagination(customersPage);
+        } else if (slice) {
+            Slice<CustomerListView> customersSlice = customerService.getFollowUpCustomersSlice(
+                    user.getId(), page, size, daysAhead);
+            customers = convertViewsToResponses(customersSlice.getContent());
+            pagination = buildPagination(customersSlice,
+                    customerService.getCachedFollowUpCustomersCount(user.getId(), daysAhead));
+        } else {
+            Page<CustomerListView> customersPage = customerService.getFollowUpCustomers(
+                    user.getId(), page, size, daysAhead);
+            customers = convertViewsToResponses(customersPage.getContent());
+            pagination = buildPagination(customersPage);
+        }
         
         // Build response (simpler for follow-up customers)
         CustomerDTO.PaginatedResponse response = buildFollowUpResponse(
-                customersPage, user, daysAhead);
+                customers, pagination, user, daysAhead);
         
         log.info("✅ Found {} follow-up customers due within {} days", 
-                customersPage.getContent().size(), daysAhead);
+                customers.size(), daysAhead);
+        
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * GET /api/mobile/customers/search?q=
+     * Ranked search by name, mobile, registration, chassis or engine number
+     * among the customers assigned to the authenticated user
+     */
+    @GetMapping("/customers/search")
+    public ResponseEntity<CustomerDTO.SearchResponse> searchCustomers(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "20") int size,
+            HttpServletRequest request) {
+        
+        log.info("📱 Mobile customer search request received");
+        
+        // Extract and validate token
+        User user = tokenUtil.validateTokenAndGetUser(request);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(createSearchErrorResponse());
+        }
+        
+        CustomerSearchService.SearchResult result;
+        try {
+            result = searchService.search(query, user.getId(), null, page, size);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createSearchErrorResponse());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(createSearchErrorResponse());
+        }
+        
+        CustomerDTO.SearchResponse response = buildSearchResponse(query, result);
+        
+        log.info("✅ Search found {} customers for user: {}", result.getTotal(), user.getUsername());
+        
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * GET /api/mobile/customers/lookup?suffix=
+     * Customers whose mobile or registration number ends with the typed digits/characters,
+     * among the customers assigned to the authenticated user
+     */
+    @GetMapping("/customers/lookup")
+    public ResponseEntity<CustomerDTO.SearchResponse> lookupCustomersBySuffix(
+            @RequestParam String suffix,
+            @RequestParam(defaultValue = "20") int size,
+            HttpServletRequest request) {
+        
+        log.info("📱 Mobile customer suffix lookup request received");
+        
+        // Extract and validate token
+        User user = tokenUtil.validateTokenAndGetUser(request);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(createSearchErrorResponse());
+        }
+        
+        CustomerSearchService.SearchResult result;
+        try {
+            result = searchService.lookupBySuffix(suffix, user.getId(), null, size);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createSearchErrorResponse());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(createSearchErrorResponse());
+        }
+        
+        CustomerDTO.SearchResponse response = buildSearchResponse(suffix, result);
+        
+        log.info("✅ Suffix lookup found {} customers for user: {}", result.getTotal(), user.getUsername());
         
         return ResponseEntity.ok(response);
     }
 
     // Helper methods for building responses
 
-    private CustomerDTO.PaginatedResponse buildPaginatedResponse(Page<Customer> customersPage, 
+    private CustomerDTO.SearchResponse buildSearchResponse(String query, CustomerSearchService.SearchResult result) {
+        List<CustomerDTO.SearchResponse.SearchHit> hits = new ArrayList<>();
+        for (CustomerSearchService.Hit hit : result.getHits()) {
+            CustomerDTO.SearchResponse.SearchHit searchHit = new CustomerDTO.SearchResponse.SearchHit();
+            searchHit.setCustomer(convertViewToResponse(CustomerListView.of(hit.getCustomer())));
+            searchHit.setScore(hit.getScore());
+            searchHit.setMatchedField(hit.getMatchedField());
+            hits.add(searchHit);
+        }
+        
+        CustomerDTO.PaginatedResponse.Pagination pagination = new CustomerDTO.PaginatedResponse.Pagination();
+        pagination.setCurrentPage(result.getPage());
+        pagination.setPageSize(result.getPageSize());
+        pagination.setTotalCount((long) result.getTotal());
+        pagination.setTotalPages((result.getTotal() + result.getPageSize() - 1) / result.getPageSize());
+        pagination.setHasNext(result.isHasNext());
+        
+        CustomerDTO.SearchResponse.SearchData data = new CustomerDTO.SearchResponse.SearchData();
+        data.setQuery(query);
+        data.setResults(hits);
+        data.setPagination(pagination);
+        data.setTruncated(result.isTruncated());
+        
+        CustomerDTO.SearchResponse response = new CustomerDTO.SearchResponse();
+        response.setData(data);
+        return response;
+    }
+
+    // Checked before paging, so a bad size or page is not reported as an invalid cursor
+    private static String validatePaging(int page, int size) {
+        if (size < 1) {
+            return "Invalid size - must be at least 1";
+        }
+        if (page < 1) {
+            return "Invalid page - must be at least 1";
+        }
+        return null;
+    }
+
+    private CustomerDTO.PaginatedResponse.Pagination buildPagination(Page<?> customersPage) {
+        CustomerDTO.PaginatedResponse.Pagination pagination = new CustomerDTO.PaginatedResponse.Pagination();
+        pagination.setCurrentPage(customersPage.getNumber() + 1); // Convert back to 1-based
+        pagination.setPageSize(customersPage.getSize());
+        pagination.setTotalCount(customersPage.getTotalElements());
+        pagination.setTotalPages(customersPage.getTotalPages());
+        pagination.setHasNext(customersPage.hasNext());
+        return pagination;
+    }
+
+    private CustomerDTO.PaginatedResponse.Pagination buildPagination(Slice<?> customersSlice,
+                                                                     CustomerCountCache.CountSnapshot totalCount) {
+        // Slice pages skip the COUNT query - totals come from the per-user count cache, unless the slice
+        // itself shows the total: the last page gives it exactly, and a count below the rows seen is stale
+        long seen = (long) customersSlice.getNumber() * customersSlice.getSize() + customersSlice.getNumberOfElements();
+        long total;
+        boolean approximate;
+        LocalDateTime cachedAt = null;
+        if (!customersSlice.hasNext() && (customersSlice.hasContent() || customersSlice.getNumber() == 0)) {
+            total = seen;
+            approximate = false;
+        } else if (totalCount.getValue() < seen + (customersSlice.hasNext() ? 1 : 0)) {
+            total = seen + (customersSlice.hasNext() ? 1 : 0);
+            approximate = true;
+        } else {
+            total = totalCount.getValue();
+            approximate = totalCount.isCached();
+            cachedAt = approximate ? totalCount.getComputedAt() : null;
+        }
+        
+        CustomerDTO.PaginatedResponse.Pagination pagination = new CustomerDTO.PaginatedResponse.Pagination();
+        pagination.setCurrentPage(customersSlice.getNumber() + 1);
+        pagination.setPageSize(customersSlice.getSize());
+        pagination.setTotalCount(total);
+        pagination.setTotalPages(customersSlice.getSize() > 0
+                ? (int) Math.ceil((double) total / customersSlice.getSize()) : 0);
+        pagination.setHasNext(customersSlice.hasNext());
+        pagination.setTotalIsApproximate(approximate);
+        pagination.setTotalCachedAt(cachedAt);
+        return pagination;
+    }
+
+    private CustomerDTO.PaginatedResponse.Pagination buildPagination(KeysetPage<?> customersPage) {
+        // Keyset pages carry no totals - counting would cost as much as OFFSET paging
+        CustomerDTO.PaginatedResponse.Pagination pagination = new CustomerDTO.PaginatedResponse.Pagination();
+        pagination.setPageSize(customersPage.getSize());
+        pagination.setHasNext(customersPage.isHasNext());
+        pagination.setNextCursor(customersPage.getNextCursor());
+        return pagination;
+    }
+
+    private CustomerDTO.PaginatedResponse buildPaginatedResponse(List<CustomerDTO.Response> customers, 
+                                                               CustomerDTO.PaginatedResponse.Pagination pagination,
                                                                User user, boolean includeClosed, 
                                                                List<Object[]> statusBreakdownData) {
         CustomerDTO.PaginatedResponse response = new CustomerDTO.PaginatedResponse();
         CustomerDTO.PaginatedResponse.CustomerData data = new CustomerDTO.PaginatedResponse.CustomerData();
         
         // Convert customers to response format
-        List<CustomerDTO.Response> customers = customersPage.getContent().stream()
-                .map(this::convertCustomerToResponse)
-                .collect(Collectors.toList());
         data.setCustomers(customers);
         
         // Pagination info
-        CustomerDTO.PaginatedResponse.Pagination pagination = new CustomerDTO.PaginatedResponse.Pagination();
-        pagination.setCurrentPage(customersPage.getNumber() + 1); // Convert back to 1-based
-        pagination.setPageSize(customersPage.getSize());
-        pagination.setTotalCount(customersPage.getTotalElements());
-        pagination.setTotalPages(customersPage.getTotalPages());
         data.setPagination(pagination);
         
         // User info
@@ -346,23 +732,16 @@ public class MobileApiController {
         return response;
     }
 
-    private CustomerDTO.PaginatedResponse buildFollowUpResponse(Page<Customer> customersPage, 
+    private CustomerDTO.PaginatedResponse buildFollowUpResponse(List<CustomerDTO.Response> customers, 
+                                                              CustomerDTO.PaginatedResponse.Pagination pagination,
                                                               User user, int daysAhead) {
         CustomerDTO.PaginatedResponse response = new CustomerDTO.PaginatedResponse();
         CustomerDTO.PaginatedResponse.CustomerData data = new CustomerDTO.PaginatedResponse.CustomerData();
         
         // Convert customers
-        List<CustomerDTO.Response> customers = customersPage.getContent().stream()
-                .map(this::convertCustomerToResponse)
-                .collect(Collectors.toList());
         data.setCustomers(customers);
         
         // Pagination
-        CustomerDTO.PaginatedResponse.Pagination pagination = new CustomerDTO.PaginatedResponse.Pagination();
-        pagination.setCurrentPage(customersPage.getNumber() + 1);
-        pagination.setPageSize(customersPage.getSize());
-        pagination.setTotalCount(customersPage.getTotalElements());
-        pagination.setTotalPages(customersPage.getTotalPages());
         data.setPagination(pagination);
         
         // User info
@@ -382,24 +761,17 @@ public class MobileApiController {
         return response;
     }
     
-    private CustomerDTO.PaginatedResponse buildSubmissionsResponse(Page<Customer> customersPage, 
+    private CustomerDTO.PaginatedResponse buildSubmissionsResponse(List<CustomerDTO.Response> customers, 
+                                                                 CustomerDTO.PaginatedResponse.Pagination pagination,
                                                                  User user, 
                                                                  List<Object[]> statusBreakdownData) {
         CustomerDTO.PaginatedResponse response = new CustomerDTO.PaginatedResponse();
         CustomerDTO.PaginatedResponse.CustomerData data = new CustomerDTO.PaginatedResponse.CustomerData();
         
         // Convert customers to response format
-        List<CustomerDTO.Response> customers = customersPage.getContent().stream()
-                .map(this::convertCustomerToResponse)
-                .collect(Collectors.toList());
         data.setCustomers(customers);
         
         // Pagination info
-        CustomerDTO.PaginatedResponse.Pagination pagination = new CustomerDTO.PaginatedResponse.Pagination();
-        pagination.setCurrentPage(customersPage.getNumber() + 1); // Convert back to 1-based
-        pagination.setPageSize(customersPage.getSize());
-        pagination.setTotalCount(customersPage.getTotalElements());
-        pagination.setTotalPages(customersPage.getTotalPages());
         data.setPagination(pagination);
         
         // User info
@@ -436,7 +808,14 @@ public class MobileApiController {
         return response;
     }
 
-    private CustomerDTO.Response convertCustomerToResponse(Customer customer) {
+    private List<CustomerDTO.Response> convertViewsToResponses(List<CustomerListView> views) {
+        return views.stream()
+                .map(this::convertViewToResponse)
+                .collect(Collectors.toList());
+    }
+
+    // The one customer mapper; entities read over JDBC come in through CustomerListView.of
+    private CustomerDTO.Response convertViewToResponse(CustomerListView customer) {
         CustomerDTO.Response response = new CustomerDTO.Response();
         response.setId(customer.getId());
         response.setFirstName(customer.getFirstName());
@@ -455,7 +834,8 @@ public class MobileApiController {
         response.setRegistrationDate(customer.getRegistrationDate());
         response.setPreviousInsuranceName(customer.getPreviousInsuranceName());
         response.setPreviousInsuranceNumber(customer.getPreviousInsuranceNumber());
-        response.setCustomerStatus(customer.getCustomerStatus() != null ? customer.getCustomerStatus().getValue() : null);
+        // Same mapping as Customer.getCustomerStatus() - null/unknown statuses read as not_started
+        response.setCustomerStatus(Customer.CustomerStatus.fromString(customer.getCustomerStatusString()).getValue());
         response.setIsClosed(customer.getIsClosed());
         response.setLastStatusUpdated(customer.getLastStatusUpdated());
         response.setReminderDate(customer.getReminderDate());
@@ -515,7 +895,19 @@ public class MobileApiController {
     private CustomerDTO.PaginatedResponse createErrorResponse(String error) {
         CustomerDTO.PaginatedResponse response = new CustomerDTO.PaginatedResponse();
         response.setSuccess(false);
-        // Note: In a real implementation, you'd handle this properly
+        response.setError(error);
+        return response;
+    }
+
+    private CustomerDTO.SyncResponse createSyncErrorResponse() {
+        CustomerDTO.SyncResponse response = new CustomerDTO.SyncResponse();
+        response.setSuccess(false);
+        return response;
+    }
+
+    private CustomerDTO.SearchResponse createSearchErrorResponse() {
+        CustomerDTO.SearchResponse response = new CustomerDTO.SearchResponse();
+        response.setSuccess(false);
         return response;
     }
 
@@ -525,6 +917,23 @@ public class MobileApiController {
         return response;
     }
 
+    // Clients must revalidate every time; the ETag makes that a cheap 304 while nothing changed
+    private static ResponseEntity.BodyBuilder okWithETag(String etag) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate());
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate()).build();
+    }
+
+    private CustomerDTO.BatchStatusUpdateResponse createBatchStatusUpdateErrorResponse(String error) {
+        CustomerDTO.BatchStatusUpdateResponse response = new CustomerDTO.BatchStatusUpdateResponse();
+        response.setSuccess(false);
+        response.setMessage(error);
+        return response;
+    }
+
     private CustomerDTO.IndividualSubmissionResponse createIndividualSubmissionErrorResponse(String error) {
         CustomerDTO.IndividualSubmissionResponse response = new CustomerDTO.IndividualSubmissionResponse();
         response.setSuccess(false);
@@ -3,6 +3,7 @@ package com.insurance.management.dto;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import lombok.Data;
@@ -129,6 +130,32 @@ public class CustomerDTO {
         private LocalDateTime reminderDate;
     }
 
+    /**
+     * Batch Status Update Request DTO
+     * For POST /api/mobile/customers/status/batch - replays a queue of status changes made offline
+     */
+    @Data
+    public static class BatchStatusUpdateRequest {
+        @NotEmpty(message = "Updates are required")
+        private java.util.List<BatchStatusUpdateItem> updates;
+    }
+
+    /**
+     * One queued status change; validated per item so a bad entry does not reject the whole batch
+     */
+    @Data
+    public static class BatchStatusUpdateItem {
+        @JsonProperty("customer_id")
+        private Long customerId;
+        
+        private String status;
+        
+        private String notes;
+        
+        @JsonProperty("reminder_date")
+        private LocalDateTime reminderDate;
+    }
+
     /**
      * Individual Customer Submission Request DTO
      * For the NEW endpoint: POST /api/mobile/customers/submit-individual
@@ -199,6 +226,7 @@ public class CustomerDTO {
     public static class PaginatedResponse {
         private boolean success = true;
         private CustomerData data;
+        private String error;
         
         @Data
         public static class CustomerData {
@@ -223,6 +251,21 @@ public class CustomerDTO {
             
             @JsonProperty("total_pages")
             private Integer totalPages;
+            
+            @JsonProperty("has_next")
+            private Boolean hasNext;
+            
+            // Opaque keyset cursor for the next page (cursor mode only)
+            @JsonProperty("next_cursor")
+            private String nextCursor;
+            
+            // Slice mode: true when the total was served from the per-user count cache (total_cached_at)
+            // or estimated from the slice, and may lag recent changes
+            @JsonProperty("total_is_approximate")
+            private Boolean totalIsApproximate;
+            
+            @JsonProperty("total_cached_at")
+            private LocalDateTime totalCachedAt;
         }
         
         @Data
@@ -329,6 +372,45 @@ public class CustomerDTO {
         }
     }
 
+    /**
+     * Batch Status Update Response DTO
+     * Results are returned in request order
+     */
+    @Data
+    public static class BatchStatusUpdateResponse {
+        private boolean success = true;
+        private String message;
+        private BatchStatusUpdateData data;
+        
+        @Data
+        public static class BatchStatusUpdateData {
+            private java.util.List<ItemResult> results;
+            
+            @JsonProperty("updated_count")
+            private int updatedCount;
+            
+            @JsonProperty("failed_count")
+            private int failedCount;
+        }
+        
+        @Data
+        public static class ItemResult {
+            private int index;
+            
+            @JsonProperty("customer_id")
+            private Long customerId;
+            
+            private boolean success;
+            
+            private String status;
+            
+            @JsonProperty("is_closed")
+            private Boolean isClosed;
+            
+            private String error;
+        }
+    }
+
     /**
      * Individual Submission Response DTO
      * For the NEW endpoint: POST /api/mobile/customers/submit-individual
@@ -360,6 +442,78 @@ public class CustomerDTO {
         }
     }
 
+    /**
+     * Delta Sync Response DTO
+     * For GET /api/mobile/customers/changes?since= - rows changed since the client's watermark
+     */
+    @Data
+    public static class SyncResponse {
+        private boolean success = true;
+        private SyncData data;
+        
+        @Data
+        public static class SyncData {
+            // Customers created or changed that are (still) assigned to the user
+            private java.util.List<Response> changed;
+            
+            // Customers the user closed, which left their list; other removals arrive via a reset
+            private java.util.List<Tombstone> removed;
+            
+            // Opaque watermark to send as ?since= on the next poll
+            @JsonProperty("next_since")
+            private String nextSince;
+            
+            @JsonProperty("has_more")
+            private Boolean hasMore;
+            
+            // Full sync - drop local customers and rebuild from this page and the ones that follow
+            private Boolean reset;
+            
+            @JsonProperty("server_time")
+            private LocalDateTime serverTime;
+        }
+        
+        @Data
+        public static class Tombstone {
+            @JsonProperty("customer_id")
+            private Long customerId;
+            
+            private String reason; // closed | unassigned
+            
+            @JsonProperty("removed_at")
+            private LocalDateTime removedAt;
+        }
+    }
+
+    /**
+     * Search Response DTO
+     * For GET /api/mobile/customers/search?q= and /lookup?suffix= - ranked matches among the user's customers
+     */
+    @Data
+    public static class SearchResponse {
+        private boolean success = true;
+        private SearchData data;
+
+        @Data
+        public static class SearchData {
+            private String query;
+            private java.util.List<SearchHit> results;
+            private PaginatedResponse.Pagination pagination;
+
+            // More customers matched than the search ranks; refine the term to see them
+            private Boolean truncated;
+        }
+
+        @Data
+        public static class SearchHit {
+            private Response customer;
+            private Integer score;
+
+            @JsonProperty("matched_field")
+            private String matchedField;
+        }
+    }
+
     /**
      * Analytics Response DTO
      * For the mobile analytics endpoint: GET /api/mobile/analytics
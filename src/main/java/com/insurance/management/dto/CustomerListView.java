@@ -0,0 +1,74 @@
+package com.insurance.management.dto;
+
+import com.insurance.management.entity.Customer;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Customer List View - Interface projection for the mobile customer lists
+ * Selects only the columns CustomerDTO.Response needs, so list queries skip the rest of the
+ * customers row and Hibernate keeps no managed entity or dirty-checking snapshot per row
+ */
+public interface CustomerListView {
+
+    Long getId();
+    String getFirstName();
+    String getMobileNumber();
+    String getCustomerEmailAddress();
+    String getCity();
+    String getState();
+    String getPinCode();
+    String getAddressLine1();
+    String getRegistrationNumber();
+    String getVehicleMake();
+    String getVehicleModel();
+    String getModelVariant();
+    String getColor();
+    LocalDate getRegistrationDate();
+    String getPreviousInsuranceName();
+    String getPreviousInsuranceNumber();
+    String getCustomerStatusString();
+    Boolean getIsClosed();
+    LocalDateTime getLastStatusUpdated();
+    LocalDateTime getReminderDate();
+    Long getAssignedTo();
+    String getNotes();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+    Long getStatusUpdatedBy();
+
+    /**
+     * View over an already loaded customer, so entities and projections share one response mapping
+     * (the entity cannot implement this interface - Spring Data would then stop projecting into it)
+     */
+    static CustomerListView of(Customer customer) {
+        return new CustomerListView() {
+            public Long getId() { return customer.getId(); }
+            public String getFirstName() { return customer.getFirstName(); }
+            public String getMobileNumber() { return customer.getMobileNumber(); }
+            public String getCustomerEmailAddress() { return customer.getCustomerEmailAddress(); }
+            public String getCity() { return customer.getCity(); }
+            public String getState() { return customer.getState(); }
+            public String getPinCode() { return customer.getPinCode(); }
+            public String getAddressLine1() { return customer.getAddressLine1(); }
+            public String getRegistrationNumber() { return customer.getRegistrationNumber(); }
+            public String getVehicleMake() { return customer.getVehicleMake(); }
+            public String getVehicleModel() { return customer.getVehicleModel(); }
+            public String getModelVariant() { return customer.getModelVariant(); }
+            public String getColor() { return customer.getColor(); }
+            public LocalDate getRegistrationDate() { return customer.getRegistrationDate(); }
+            public String getPreviousInsuranceName() { return customer.getPreviousInsuranceName(); }
+            public String getPreviousInsuranceNumber() { return customer.getPreviousInsuranceNumber(); }
+            public String getCustomerStatusString() { return customer.getCustomerStatusString(); }
+            public Boolean getIsClosed() { return customer.getIsClosed(); }
+            public LocalDateTime getLastStatusUpdated() { return customer.getLastStatusUpdated(); }
+            public LocalDateTime getReminderDate() { return customer.getReminderDate(); }
+            public Long getAssignedTo() { return customer.getAssignedTo(); }
+            public String getNotes() { return customer.getNotes(); }
+            public LocalDateTime getCreatedAt() { return customer.getCreatedAt(); }
+            public LocalDateTime getUpdatedAt() { return customer.getUpdatedAt(); }
+            public Long getStatusUpdatedBy() { return customer.getStatusUpdatedBy(); }
+        };
+    }
+}
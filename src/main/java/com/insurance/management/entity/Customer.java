@@ -24,6 +24,9 @@ import java.time.LocalDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public class Customer {
 
+    // Queue sort key for rows with neither a reminder nor a status update
+    public static final LocalDateTime QUEUE_SORT_FLOOR = LocalDateTime.of(1900, 1, 1, 0, 0);
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -187,6 +190,11 @@ public class Customer {
     @JsonProperty("reminder_date")
     private LocalDateTime reminderDate;
 
+    // Home queue sort key, a persisted computed column (V3) so the queue is an index range scan
+    @Column(name = "queue_sort_at", insertable = false, updatable = false)
+    @JsonIgnore
+    private LocalDateTime queueSortAt;
+
     // Assignment management
     @Column(name = "assigned_to")
     @JsonProperty("assigned_to")
@@ -310,6 +318,15 @@ public class Customer {
         }
     }
 
+    /**
+     * Home queue sort key - the reminder date for scheduled follow-ups, otherwise the last status update,
+     * falling back to QUEUE_SORT_FLOOR so the key is never null. Mirrors the queue_sort_at column expression.
+     */
+    public static LocalDateTime queueSortKey(String status, LocalDateTime reminderDate, LocalDateTime lastStatusUpdated) {
+        LocalDateTime key = "follow_up".equals(status) && reminderDate != null ? reminderDate : lastStatusUpdated;
+        return key != null ? key : QUEUE_SORT_FLOOR;
+    }
+
     /**
      * Get full customer name
      */
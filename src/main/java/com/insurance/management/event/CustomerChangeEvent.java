@@ -0,0 +1,108 @@
+package com.insurance.management.event;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Customer Change Event - Published by CustomerService and BulkAssignmentService whenever customer rows are written
+ * Listeners use it to invalidate per-user caches once the surrounding transaction commits
+ */
+public class CustomerChangeEvent {
+
+    public enum ChangeType {
+        STATUS_UPDATED,
+        SUBMITTED,
+        ASSIGNED
+    }
+
+    private final ChangeType type;
+    private final List<Long> customerIds;
+    private final Set<Long> userIds;
+    private final boolean allUsers;
+    private final List<RowChange> rowChanges;
+
+    private CustomerChangeEvent(ChangeType type, List<Long> customerIds, Set<Long> userIds, boolean allUsers,
+                                List<RowChange> rowChanges) {
+        this.type = type;
+        this.customerIds = customerIds != null ? List.copyOf(customerIds) : Collections.emptyList();
+        this.userIds = userIds != null ? Collections.unmodifiableSet(new LinkedHashSet<>(userIds)) : Collections.emptySet();
+        this.allUsers = allUsers;
+        this.rowChanges = rowChanges != null ? List.copyOf(rowChanges) : Collections.emptyList();
+    }
+
+    /**
+     * A change whose effect is limited to the given users
+     */
+    public static CustomerChangeEvent forUsers(ChangeType type, List<Long> customerIds, Long... userIds) {
+        Set<Long> users = new LinkedHashSet<>();
+        for (Long userId : userIds) {
+            if (userId != null) {
+                users.add(userId);
+            }
+        }
+        return new CustomerChangeEvent(type, customerIds, users, false, null);
+    }
+
+    /**
+     * A change that may also affect users we do not know about (e.g. the previous assignees of reassigned rows)
+     */
+    public static CustomerChangeEvent forAllUsers(ChangeType type, List<Long> customerIds, Long... knownUserIds) {
+        CustomerChangeEvent scoped = forUsers(type, customerIds, knownUserIds);
+        return new CustomerChangeEvent(type, scoped.customerIds, scoped.userIds, true, null);
+    }
+
+    /**
+     * Same change, carrying the before/after row snapshots; every user touched by a snapshot is affected
+     */
+    public CustomerChangeEvent withRowChanges(List<RowChange> changes) {
+        Set<Long> users = new LinkedHashSet<>(userIds);
+        for (RowChange change : changes) {
+            for (CustomerSnapshot snapshot : new CustomerSnapshot[]{change.getBefore(), change.getAfter()}) {
+                if (snapshot.getAssignedTo() != null) {
+                    users.add(snapshot.getAssignedTo());
+                }
+                if (snapshot.getStatusUpdatedBy() != null) {
+                    users.add(snapshot.getStatusUpdatedBy());
+                }
+            }
+        }
+        return new CustomerChangeEvent(type, customerIds, users, allUsers, changes);
+    }
+
+    public ChangeType getType() { return type; }
+    public List<Long> getCustomerIds() { return customerIds; }
+    public Set<Long> getUserIds() { return userIds; }
+    public boolean isAllUsers() { return allUsers; }
+    public List<RowChange> getRowChanges() { return rowChanges; }
+
+    /**
+     * Whether the change may affect the given user's lists and counts
+     */
+    public boolean affects(Long userId) {
+        return allUsers || userIds.contains(userId);
+    }
+
+    /**
+     * One written row, as it was before and after the write
+     */
+    public static class RowChange {
+        private final CustomerSnapshot before;
+        private final CustomerSnapshot after;
+
+        public RowChange(CustomerSnapshot before, CustomerSnapshot after) {
+            this.before = before;
+            this.after = after;
+        }
+
+        public CustomerSnapshot getBefore() { return before; }
+        public CustomerSnapshot getAfter() { return after; }
+    }
+
+    @Override
+    public String toString() {
+        return "CustomerChangeEvent{type=" + type + ", customers=" + customerIds.size() +
+                ", users=" + (allUsers ? "ALL" : userIds) + "}";
+    }
+}
@@ -0,0 +1,51 @@
+package com.insurance.management.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Customer Snapshot - The columns of a customer row that per-user and per-state counters are derived from
+ * Captured before and after a write so listeners can apply the exact delta
+ */
+public class CustomerSnapshot {
+
+    private final Long customerId;
+    private final String state;
+    private final Long assignedTo;
+    private final Long statusUpdatedBy;
+    private final String status;
+    private final Boolean isClosed;
+    private final LocalDateTime lastStatusUpdated;
+
+    public CustomerSnapshot(Long customerId, String state, Long assignedTo, Long statusUpdatedBy, String status,
+                            Boolean isClosed, LocalDateTime lastStatusUpdated) {
+        this.customerId = customerId;
+        this.state = state;
+        this.assignedTo = assignedTo;
+        this.statusUpdatedBy = statusUpdatedBy;
+        this.status = status;
+        this.isClosed = isClosed;
+        this.lastStatusUpdated = lastStatusUpdated;
+    }
+
+    /**
+     * The row after a status update by the given user (mirrors updateCustomerStatusAndUnassignIfClosed)
+     */
+    public CustomerSnapshot afterStatusUpdate(Long userId, String newStatus, boolean closed, LocalDateTime updatedAt) {
+        return new CustomerSnapshot(customerId, state, closed ? null : assignedTo, userId, newStatus, closed, updatedAt);
+    }
+
+    /**
+     * The row after being assigned to the given user (mirrors assignCustomersToUser)
+     */
+    public CustomerSnapshot afterAssignment(Long userId) {
+        return new CustomerSnapshot(customerId, state, userId, statusUpdatedBy, status, isClosed, lastStatusUpdated);
+    }
+
+    public Long getCustomerId() { return customerId; }
+    public String getState() { return state; }
+    public Long getAssignedTo() { return assignedTo; }
+    public Long getStatusUpdatedBy() { return statusUpdatedBy; }
+    public String getStatus() { return status; }
+    public Boolean getIsClosed() { return isClosed; }
+    public LocalDateTime getLastStatusUpdated() { return lastStatusUpdated; }
+}
@@ -0,0 +1,44 @@
+package com.insurance.management.event;
+
+import com.insurance.management.entity.User;
+import org.springframework.beans.BeanUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * User Change Event - Published by UserService whenever app_users rows are saved
+ * Carries detached copies of the saved users so listeners can update in-memory views after commit,
+ * and whether the users' outstanding tokens must be revoked (lock, deactivate, password change)
+ */
+public class UserChangeEvent {
+
+    private final List<User> users;
+    private final boolean revokeTokens;
+
+    public UserChangeEvent(List<User> savedUsers) {
+        this(savedUsers, false);
+    }
+
+    public UserChangeEvent(List<User> savedUsers, boolean revokeTokens) {
+        List<User> copies = new ArrayList<>(savedUsers.size());
+        for (User user : savedUsers) {
+            copies.add(copyOf(user));
+        }
+        this.users = Collections.unmodifiableList(copies);
+        this.revokeTokens = revokeTokens;
+    }
+
+    public List<User> getUsers() { return users; }
+    public boolean isRevokeTokens() { return revokeTokens; }
+
+    /**
+     * Detached copy of a user's columns, without the lazy customer collection
+     */
+    public static User copyOf(User user) {
+        User copy = new User();
+        BeanUtils.copyProperties(user, copy, "assignedCustomers");
+        return copy;
+    }
+}
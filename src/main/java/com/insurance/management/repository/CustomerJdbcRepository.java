@@ -0,0 +1,468 @@
+package com.insurance.management.repository;
+
+import com.insurance.management.entity.Customer;
+import com.insurance.management.event.CustomerSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Customer JDBC Repository - Hand-written SQL for hot mobile paths
+ * Used where a single round trip matters more than what Spring Data can derive
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerJdbcRepository {
+
+    /**
+     * Columns read by the mobile customer response - everything else on the row is skipped
+     */
+    public static final String RESPONSE_COLUMNS =
+            "c.id, c.firstname, c.mobilenumber, c.customeremailaddress, c.city, c.state, c.pincode, " +
+            "c.addressline1, c.registrationnum, c.vehiclemake, c.vehmodel, c.modelvariant, c.color, " +
+            "c.registrationdate, c.previousinsname, c.previnsno, c.customer_status, c.is_closed, " +
+            "c.last_status_updated, c.reminder_date, c.assigned_to, c.notes, c.created_at, c.updated_at, " +
+            "c.status_updated_by";
+
+    // Same predicates and ordering as CustomerRepository.findOpenCustomersAssignedToUser / findAllCustomersAssignedToUser
+    private static final String ASSIGNED_FILTER = "c.assigned_to = ?";
+    private static final String OPEN_FILTER =
+            " AND (c.is_closed = 0 OR c.is_closed IS NULL)" +
+            " AND (c.customer_status <> 'follow_up' OR c.reminder_date IS NULL OR c.reminder_date <= ?)";
+    private static final String QUEUE_ORDER = " ORDER BY c.queue_sort_at DESC, c.id DESC";
+
+    // Same as CustomerRepository.getStatusBreakdownForUser
+    private static final String STATUS_BREAKDOWN_SQL =
+            "SELECT c.customer_status, c.is_closed, COUNT(*) FROM customers c " +
+            "WHERE c.status_updated_by = ? AND c.customer_status IS NOT NULL " +
+            "GROUP BY c.customer_status, c.is_closed ORDER BY c.customer_status";
+
+    // Same SET list and guard as CustomerRepository.updateCustomerStatusAndUnassignIfClosed
+    private static final String STATUS_UPDATE_SQL =
+            "UPDATE customers SET customer_status = ?, is_closed = ?, last_status_updated = ?, " +
+            "status_updated_by = ?, notes = COALESCE(?, notes), reminder_date = ?, " +
+            "updated_at = ?, assigned_to = CASE WHEN ? = 1 THEN NULL ELSE assigned_to END " +
+            "WHERE id = ? AND assigned_to = ?";
+
+    // Assigned counts by assignee and completed/today counts by last updater, merged per agent
+    private static final String LEADERBOARD_SQL =
+            "SELECT u.id, u.username, u.first_name, u.last_name, u.location_state, " +
+            "SUM(t.assigned), SUM(t.completed), SUM(t.today) FROM (" +
+            "SELECT c.assigned_to AS user_id, COUNT(*) AS assigned, 0 AS completed, 0 AS today " +
+            "FROM customers c WHERE c.assigned_to IS NOT NULL GROUP BY c.assigned_to " +
+            "UNION ALL " +
+            "SELECT c.status_updated_by, 0, SUM(CASE WHEN c.is_closed = 1 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN c.last_status_updated >= ? THEN 1 ELSE 0 END) " +
+            "FROM customers c WHERE c.status_updated_by IS NOT NULL GROUP BY c.status_updated_by" +
+            ") t JOIN app_users u ON u.id = t.user_id " +
+            "WHERE u.user_role = 'USER'";
+    private static final String LEADERBOARD_GROUP_BY =
+            " GROUP BY u.id, u.username, u.first_name, u.last_name, u.location_state";
+
+    // Admin users grid statistics; "today" follows the database server clock like the original GETDATE() checks,
+    // expressed as a half-open range so the column side stays bare
+    private static final String ASSIGNMENT_STATS_SQL =
+            "SELECT c.assigned_to, " +
+            "SUM(CASE WHEN c.processing_status IN ('ASSIGNED', 'IN_PROGRESS', 'COMPLETED') THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN c.processing_status = 'COMPLETED' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN (c.last_status_updated >= d.today AND c.last_status_updated < DATEADD(DAY, 1, d.today)) " +
+            "OR (c.updated_at >= d.today AND c.updated_at < DATEADD(DAY, 1, d.today)) THEN 1 ELSE 0 END) " +
+            "FROM customers c CROSS JOIN (SELECT CAST(GETDATE() AS DATE) AS today) d " +
+            "WHERE c.assigned_to IN (%s) GROUP BY c.assigned_to";
+
+    // Same predicates as CustomerRepository.findUnassignedCustomersByState; seeks ix_customers_state_assigned,
+    // whose keys carry the clustered id
+    private static final String UNASSIGNED_IN_STATE_FILTER =
+            "c.state = ? AND c.assigned_to IS NULL AND (c.is_closed = 0 OR c.is_closed IS NULL)";
+
+    private static final String SNAPSHOT_COLUMNS =
+            "c.id, c.state, c.assigned_to, c.status_updated_by, c.customer_status, c.is_closed, c.last_status_updated";
+
+    /**
+     * Largest IN list sent in one statement - SQL Server allows ~2100 parameters per statement
+     */
+    public static final int IN_LIST_CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Allocated customers page, its total and the user's status breakdown in one round trip.
+     * The three SELECTs are sent as a single batch and read back as consecutive result sets.
+     */
+    public AllocatedPageResult findAllocatedPageWithBreakdown(Long userId, boolean includeClosed,
+                                                              LocalDateTime currentTime, int page, int size) {
+        String filter = ASSIGNED_FILTER + (includeClosed ? "" : OPEN_FILTER);
+        String sql = "SELECT " + RESPONSE_COLUMNS + " FROM customers c WHERE " + filter + QUEUE_ORDER +
+                " OFFSET ? ROWS FETCH NEXT ? ROWS ONLY; " +
+                "SELECT COUNT(*) FROM customers c WHERE " + filter + "; " +
+                STATUS_BREAKDOWN_SQL;
+
+        return jdbcTemplate.execute((ConnectionCallback<AllocatedPageResult>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                int index = 1;
+                // Page
+                statement.setLong(index++, userId);
+                if (!includeClosed) {
+                    statement.setTimestamp(index++, Timestamp.valueOf(currentTime));
+                }
+                statement.setLong(index++, (long) page * size);
+                statement.setInt(index++, size);
+                // Total
+                statement.setLong(index++, userId);
+                if (!includeClosed) {
+                    statement.setTimestamp(index++, Timestamp.valueOf(currentTime));
+                }
+                // Status breakdown
+                statement.setLong(index, userId);
+
+                AllocatedPageResult result = new AllocatedPageResult();
+                boolean hasResultSet = statement.execute();
+
+                try (ResultSet rs = nextResultSet(statement, hasResultSet)) {
+                    List<Customer> content = new ArrayList<>();
+                    while (rs.next()) {
+                        content.add(mapResponseColumns(rs));
+                    }
+                    result.setContent(content);
+                }
+
+                try (ResultSet rs = nextResultSet(statement, statement.getMoreResults())) {
+                    result.setTotalCount(rs.next() ? rs.getLong(1) : 0L);
+                }
+
+                try (ResultSet rs = nextResultSet(statement, statement.getMoreResults())) {
+                    List<Object[]> breakdown = new ArrayList<>();
+                    while (rs.next()) {
+                        breakdown.add(new Object[]{rs.getString(1), getBoolean(rs, 2), rs.getLong(3)});
+                    }
+                    result.setStatusBreakdown(breakdown);
+                }
+
+                return result;
+            }
+        });
+    }
+
+    /**
+     * Assigned, completed and updated-since counts for every agent (optionally one state) in one grouped query
+     */
+    public List<LeaderboardRow> findLeaderboardRows(LocalDateTime updatedSince, String state) {
+        String sql = LEADERBOARD_SQL + (state != null ? " AND u.location_state = ?" : "") + LEADERBOARD_GROUP_BY;
+        Object[] params = state != null
+                ? new Object[]{Timestamp.valueOf(updatedSince), state}
+                : new Object[]{Timestamp.valueOf(updatedSince)};
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new LeaderboardRow(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getString(5),
+                rs.getLong(6),
+                rs.getLong(7),
+                rs.getLong(8)), params);
+    }
+
+    /**
+     * Assigned, completed and updated-today counts for a set of users in one grouped query per 1000 ids.
+     * Users without customers are absent from the map.
+     */
+    public Map<Long, AssignmentStats> findAssignmentStatsForUsers(Collection<Long> userIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(userIds));
+        Map<Long, AssignmentStats> stats = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, ids.size()));
+            String sql = String.format(ASSIGNMENT_STATS_SQL, String.join(",", Collections.nCopies(chunk.size(), "?")));
+            jdbcTemplate.query(sql, rs -> {
+                stats.put(rs.getLong(1), new AssignmentStats(rs.getLong(2), rs.getLong(3), rs.getLong(4)));
+            }, chunk.toArray());
+        }
+        return stats;
+    }
+
+    /**
+     * Read the counter-relevant columns of the given customers and hold update locks on them
+     * until the surrounding transaction ends, so the snapshot matches what the following UPDATE changes
+     */
+    public List<CustomerSnapshot> lockSnapshots(List<Long> customerIds) {
+        List<CustomerSnapshot> snapshots = new ArrayList<>();
+        for (int from = 0; from < customerIds.size(); from += IN_LIST_CHUNK_SIZE) {
+            List<Long> chunk = customerIds.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, customerIds.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            snapshots.addAll(jdbcTemplate.query(
+                    "SELECT " + SNAPSHOT_COLUMNS + " FROM customers c WITH (UPDLOCK, ROWLOCK) " +
+                    "WHERE c.id IN (" + placeholders + ")",
+                    (rs, rowNum) -> mapSnapshot(rs),
+                    chunk.toArray()));
+        }
+        return snapshots;
+    }
+
+    /**
+     * Count the open, unassigned customers of a state
+     */
+    public long countUnassignedInState(String state) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM customers c WHERE " + UNASSIGNED_IN_STATE_FILTER, Long.class, state);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Ids of open, unassigned customers of a state below the given id, newest first, at most limit rows
+     */
+    public List<Long> findUnassignedIdsInState(String state, long beforeId, int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT c.id FROM customers c WHERE " + UNASSIGNED_IN_STATE_FILTER + " AND c.id < ? " +
+                "ORDER BY c.id DESC OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY",
+                Long.class, state, beforeId, limit);
+    }
+
+    /**
+     * Snapshot and update-lock the open, unassigned customers of a state in an id range,
+     * so the snapshot matches what {@link #assignUnassignedRange} changes in the same transaction
+     */
+    public List<CustomerSnapshot> lockUnassignedRange(String state, long fromId, long toId) {
+        return jdbcTemplate.query(
+                "SELECT " + SNAPSHOT_COLUMNS + " FROM customers c WITH (UPDLOCK, ROWLOCK) " +
+                "WHERE " + UNASSIGNED_IN_STATE_FILTER + " AND c.id BETWEEN ? AND ?",
+                (rs, rowNum) -> mapSnapshot(rs), state, fromId, toId);
+    }
+
+    /**
+     * Assign the open, unassigned customers of a state in an id range to a user.
+     * Fixed statement shape whatever the chunk size, so one cached plan serves every chunk.
+     */
+    public int assignUnassignedRange(String state, long fromId, long toId, Long userId, LocalDateTime assignedAt) {
+        return jdbcTemplate.update(
+                "UPDATE customers SET assigned_to = ?, updated_at = ? " +
+                "WHERE state = ? AND assigned_to IS NULL AND (is_closed = 0 OR is_closed IS NULL) " +
+                "AND id BETWEEN ? AND ?",
+                userId, Timestamp.valueOf(assignedAt), state, fromId, toId);
+    }
+
+    /**
+     * Apply status updates for one user as a single JDBC batch, in list order.
+     * Returns one update count per row (0 when the customer is not assigned to the user at that point).
+     */
+    public int[] batchUpdateStatus(Long userId, List<StatusUpdateRow> rows, LocalDateTime currentTime) {
+        Timestamp now = Timestamp.valueOf(currentTime);
+        return jdbcTemplate.batchUpdate(STATUS_UPDATE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                StatusUpdateRow row = rows.get(i);
+                statement.setString(1, row.getStatus());
+                statement.setBoolean(2, row.isClosed());
+                statement.setTimestamp(3, now);
+                statement.setLong(4, userId);
+                statement.setString(5, row.getNotes());
+                statement.setTimestamp(6, row.getReminderDate() != null ? Timestamp.valueOf(row.getReminderDate()) : null);
+                statement.setTimestamp(7, now);
+                statement.setInt(8, row.isClosed() ? 1 : 0);
+                statement.setLong(9, row.getCustomerId());
+                statement.setLong(10, userId);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    /**
+     * Map a row selected with {@link #RESPONSE_COLUMNS} to a detached Customer
+     */
+    public static Customer mapResponseColumns(ResultSet rs) throws SQLException {
+        Customer customer = new Customer();
+        customer.setId(getLong(rs, "id"));
+        customer.setFirstName(rs.getString("firstname"));
+        customer.setMobileNumber(rs.getString("mobilenumber"));
+        customer.setCustomerEmailAddress(rs.getString("customeremailaddress"));
+        customer.setCity(rs.getString("city"));
+        customer.setState(rs.getString("state"));
+        customer.setPinCode(rs.getString("pincode"));
+        customer.setAddressLine1(rs.getString("addressline1"));
+        customer.setRegistrationNumber(rs.getString("registrationnum"));
+        customer.setVehicleMake(rs.getString("vehiclemake"));
+        customer.setVehicleModel(rs.getString("vehmodel"));
+        customer.setModelVariant(rs.getString("modelvariant"));
+        customer.setColor(rs.getString("color"));
+        customer.setRegistrationDate(getLocalDate(rs, "registrationdate"));
+        customer.setPreviousInsuranceName(rs.getString("previousinsname"));
+        customer.setPreviousInsuranceNumber(rs.getString("previnsno"));
+        customer.setCustomerStatusString(rs.getString("customer_status"));
+        customer.setIsClosed(getBoolean(rs, "is_closed"));
+        customer.setLastStatusUpdated(getLocalDateTime(rs, "last_status_updated"));
+        customer.setReminderDate(getLocalDateTime(rs, "reminder_date"));
+        customer.setAssignedTo(getLong(rs, "assigned_to"));
+        customer.setNotes(rs.getString("notes"));
+        customer.setCreatedAt(getLocalDateTime(rs, "created_at"));
+        customer.setUpdatedAt(getLocalDateTime(rs, "updated_at"));
+        customer.setStatusUpdatedBy(getLong(rs, "status_updated_by"));
+        return customer;
+    }
+
+    private static CustomerSnapshot mapSnapshot(ResultSet rs) throws SQLException {
+        return new CustomerSnapshot(
+                getLong(rs, "id"),
+                rs.getString("state"),
+                getLong(rs, "assigned_to"),
+                getLong(rs, "status_updated_by"),
+                rs.getString("customer_status"),
+                getBoolean(rs, "is_closed"),
+                getLocalDateTime(rs, "last_status_updated"));
+    }
+
+    private static ResultSet nextResultSet(PreparedStatement statement, boolean hasResultSet) throws SQLException {
+        // Skip update counts (e.g. from SET NOCOUNT OFF) until the next result set
+        while (!hasResultSet) {
+            if (statement.getUpdateCount() == -1) {
+                throw new SQLException("Expected another result set from the fused allocated-customers batch");
+            }
+            hasResultSet = statement.getMoreResults();
+        }
+        return statement.getResultSet();
+    }
+
+    private static Long getLong(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Boolean getBoolean(ResultSet rs, String column) throws SQLException {
+        boolean value = rs.getBoolean(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Boolean getBoolean(ResultSet rs, int column) throws SQLException {
+        boolean value = rs.getBoolean(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static LocalDateTime getLocalDateTime(ResultSet rs, String column) throws SQLException {
+        Timestamp value = rs.getTimestamp(column);
+        return value != null ? value.toLocalDateTime() : null;
+    }
+
+    private static LocalDate getLocalDate(ResultSet rs, String column) throws SQLException {
+        Date value = rs.getDate(column);
+        return value != null ? value.toLocalDate() : null;
+    }
+
+    /**
+     * Per-user counts shown in the admin users grid
+     */
+    public static class AssignmentStats {
+        public static final AssignmentStats EMPTY = new AssignmentStats(0, 0, 0);
+
+        private final long assignedCount;
+        private final long completedCount;
+        private final long todayCount;
+
+        public AssignmentStats(long assignedCount, long completedCount, long todayCount) {
+            this.assignedCount = assignedCount;
+            this.completedCount = completedCount;
+            this.todayCount = todayCount;
+        }
+
+        public long getAssignedCount() { return assignedCount; }
+        public long getCompletedCount() { return completedCount; }
+        public long getTodayCount() { return todayCount; }
+    }
+
+    /**
+     * Per-agent counts returned by the leaderboard query
+     */
+    public static class LeaderboardRow {
+        private final Long userId;
+        private final String username;
+        private final String firstName;
+        private final String lastName;
+        private final String locationState;
+        private final long assignedCount;
+        private final long completedCount;
+        private final long todayUpdatedCount;
+
+        public LeaderboardRow(Long userId, String username, String firstName, String lastName, String locationState,
+                              long assignedCount, long completedCount, long todayUpdatedCount) {
+            this.userId = userId;
+            this.username = username;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.locationState = locationState;
+            this.assignedCount = assignedCount;
+            this.completedCount = completedCount;
+            this.todayUpdatedCount = todayUpdatedCount;
+        }
+
+        public Long getUserId() { return userId; }
+        public String getUsername() { return username; }
+        public String getFirstName() { return firstName; }
+        public String getLastName() { return lastName; }
+        public String getLocationState() { return locationState; }
+        public long getAssignedCount() { return assignedCount; }
+        public long getCompletedCount() { return completedCount; }
+        public long getTodayUpdatedCount() { return todayUpdatedCount; }
+    }
+
+    /**
+     * One already-validated row of a batched status update
+     */
+    public static class StatusUpdateRow {
+        private final Long customerId;
+        private final String status;
+        private final boolean closed;
+        private final String notes;
+        private final LocalDateTime reminderDate;
+
+        public StatusUpdateRow(Long customerId, String status, boolean closed, String notes, LocalDateTime reminderDate) {
+            this.customerId = customerId;
+            this.status = status;
+            this.closed = closed;
+            this.notes = notes;
+            this.reminderDate = reminderDate;
+        }
+
+        public Long getCustomerId() { return customerId; }
+        public String getStatus() { return status; }
+        public boolean isClosed() { return closed; }
+        public String getNotes() { return notes; }
+        public LocalDateTime getReminderDate() { return reminderDate; }
+    }
+
+    /**
+     * Page, total and status breakdown returned by the fused allocated-customers query
+     */
+    public static class AllocatedPageResult {
+        private List<Customer> content;
+        private long totalCount;
+        private List<Object[]> statusBreakdown;
+
+        public List<Customer> getContent() { return content; }
+        public void setContent(List<Customer> content) { this.content = content; }
+
+        public long getTotalCount() { return totalCount; }
+        public void setTotalCount(long totalCount) { this.totalCount = totalCount; }
+
+        public List<Object[]> getStatusBreakdown() { return statusBreakdown; }
+        public void setStatusBreakdown(List<Object[]> statusBreakdown) { this.statusBreakdown = statusBreakdown; }
+    }
+}
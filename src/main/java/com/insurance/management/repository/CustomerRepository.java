@@ -1,8 +1,10 @@
 package com.insurance.management.repository;
 
+import com.insurance.management.dto.CustomerListView;
 import com.insurance.management.entity.Customer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -20,15 +22,36 @@ import java.util.Optional;
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
+    /**
+     * Select list for CustomerListView - only the columns the mobile customer response needs
+     */
+    String LIST_VIEW_SELECT = "SELECT c.id AS id, c.firstName AS firstName, c.mobileNumber AS mobileNumber, " +
+            "c.customerEmailAddress AS customerEmailAddress, c.city AS city, c.state AS state, c.pinCode AS pinCode, " +
+            "c.addressLine1 AS addressLine1, c.registrationNumber AS registrationNumber, c.vehicleMake AS vehicleMake, " +
+            "c.vehicleModel AS vehicleModel, c.modelVariant AS modelVariant, c.color AS color, " +
+            "c.registrationDate AS registrationDate, c.previousInsuranceName AS previousInsuranceName, " +
+            "c.previousInsuranceNumber AS previousInsuranceNumber, c.customerStatusString AS customerStatusString, " +
+            "c.isClosed AS isClosed, c.lastStatusUpdated AS lastStatusUpdated, c.reminderDate AS reminderDate, " +
+            "c.assignedTo AS assignedTo, c.notes AS notes, c.createdAt AS createdAt, c.updatedAt AS updatedAt, " +
+            "c.statusUpdatedBy AS statusUpdatedBy";
+
+    /**
+     * Delta sync watermark key - rows never touched since the audit columns were added fall back to :floor
+     */
+    String SYNC_KEY = "COALESCE(c.updatedAt, :floor)";
+
     /**
      * Find customers assigned to a specific user (OPEN customers only)
      * This matches the mobile API query from Node.js implementation
      */
-    @Query("SELECT c FROM Customer c WHERE c.assignedTo = :userId " +
+    @Query(value = LIST_VIEW_SELECT + " FROM Customer c WHERE c.assignedTo = :userId " +
            "AND (c.isClosed = false OR c.isClosed IS NULL) " +
            "AND (c.customerStatusString != 'follow_up' OR c.reminderDate IS NULL OR c.reminderDate <= :currentTime) " +
-           "ORDER BY CASE WHEN c.customerStatusString = 'follow_up' AND c.reminderDate IS NOT NULL THEN c.reminderDate ELSE c.lastStatusUpdated END DESC")
-    Page<Customer> findOpenCustomersAssignedToUser(
+           "ORDER BY c.queueSortAt DESC, c.id DESC",
+           countQuery = "SELECT COUNT(c) FROM Customer c WHERE c.assignedTo = :userId " +
+           "AND (c.isClosed = false OR c.isClosed IS NULL) " +
+           "AND (c.customerStatusString != 'follow_up' OR c.reminderDate IS NULL OR c.reminderDate <= :currentTime)")
+    Page<CustomerListView> findOpenCustomersAssignedToUser(
             @Param("userId") Long userId, 
             @Param("currentTime") LocalDateTime currentTime, 
             Pageable pageable);
@@ -36,9 +59,56 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     /**
      * Find ALL customers assigned to a user (including closed ones)
      */
-    @Query("SELECT c FROM Customer c WHERE c.assignedTo = :userId " +
-           "ORDER BY CASE WHEN c.customerStatusString = 'follow_up' AND c.reminderDate IS NOT NULL THEN c.reminderDate ELSE c.lastStatusUpdated END DESC")
-    Page<Customer> findAllCustomersAssignedToUser(@Param("userId") Long userId, Pageable pageable);
+    @Query(value = LIST_VIEW_SELECT + " FROM Customer c WHERE c.assignedTo = :userId " +
+           "ORDER BY c.queueSortAt DESC, c.id DESC",
+           countQuery = "SELECT COUNT(c) FROM Customer c WHERE c.assignedTo = :userId")
+    Page<CustomerListView> findAllCustomersAssignedToUser(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Slice variant of findOpenCustomersAssignedToUser - no COUNT query is issued
+     */
+    @Query(LIST_VIEW_SELECT + " FROM Customer c WHERE c.assignedTo = :userId " +
+           "AND (c.isClosed = false OR c.isClosed IS NULL) " +
+           "AND (c.customerStatusString != 'follow_up' OR c.reminderDate IS NULL OR c.reminderDate <= :currentTime) " +
+           "ORDER BY c.queueSortAt DESC, c.id DESC")
+    Slice<CustomerListView> findOpenCustomersSliceAssignedToUser(
+            @Param("userId") Long userId,
+            @Param("currentTime") LocalDateTime currentTime,
+            Pageable pageable);
+
+    /**
+     * Slice variant of findAllCustomersAssignedToUser - no COUNT query is issued
+     */
+    @Query(LIST_VIEW_SELECT + " FROM Customer c WHERE c.assignedTo = :userId " +
+           "ORDER BY c.queueSortAt DESC, c.id DESC")
+    Slice<CustomerListView> findAllCustomersSliceAssignedToUser(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Keyset page of OPEN customers assigned to a user, strictly after the (sort key, id) cursor
+     */
+    @Query(LIST_VIEW_SELECT + " FROM Customer c WHERE c.assignedTo = :userId " +
+           "AND (c.isClosed = false OR c.isClosed IS NULL) " +
+           "AND (c.customerStatusString != 'follow_up' OR c.reminderDate IS NULL OR c.reminderDate <= :currentTime) " +
+           "AND (c.queueSortAt < :cursorKey OR (c.queueSortAt = :cursorKey AND c.id < :cursorId)) " +
+           "ORDER BY c.queueSortAt DESC, c.id DESC")
+    List<CustomerListView> findOpenCustomersAssignedToUserAfter(
+            @Param("userId") Long userId,
+            @Param("currentTime") LocalDateTime currentTime,
+            @Param("cursorKey") LocalDateTime cursorKey,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    /**
+     * Keyset page of ALL customers assigned to a user, strictly after the (sort key, id) cursor
+     */
+    @Query(LIST_VIEW_SELECT + " FROM Customer c WHERE c.assignedTo = :userId " +
+           "AND (c.queueSortAt < :cursorKey OR (c.queueSortAt = :cursorKey AND c.id < :cursorId)) " +
+           "ORDER BY c.queueSortAt DESC, c.id DESC")
+    List<CustomerListView> findAllCustomersAssignedToUserAfter(
+            @Param("userId") Long userId,
+            @Param("cursorKey") LocalDateTime cursorKey,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
 
     /**
      * Count open customers assigned to a user
@@ -56,13 +126,32 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     /**
      * Find customers due for follow-up
      */
-    @Query("SELECT c FROM Customer c WHERE c.assignedTo = :userId " +
+    @Query(value = LIST_VIEW_SELECT + " FROM Customer c WHERE c.assignedTo = :userId " +
+           "AND c.customerStatusString = 'follow_up' " +
+           "AND c.reminderDate IS NOT NULL " +
+           "AND c.reminderDate <= :futureDate " +
+           "AND (c.isClosed = false OR c.isClosed IS NULL) " +
+           "ORDER BY c.reminderDate ASC",
+           countQuery = "SELECT COUNT(c) FROM Customer c WHERE c.assignedTo = :userId " +
+           "AND c.customerStatusString = 'follow_up' " +
+           "AND c.reminderDate IS NOT NULL " +
+           "AND c.reminderDate <= :futureDate " +
+           "AND (c.isClosed = false OR c.isClosed IS NULL)")
+    Page<CustomerListView> findFollowUpCustomersForUser(
+            @Param("userId") Long userId,
+            @Param("futureDate") LocalDateTime futureDate,
+            Pageable pageable);
+
+    /**
+     * Slice variant of findFollowUpCustomersForUser - no COUNT query is issued
+     */
+    @Query(LIST_VIEW_SELECT + " FROM Customer c WHERE c.assignedTo = :userId " +
            "AND c.customerStatusString = 'follow_up' " +
            "AND c.reminderDate IS NOT NULL " +
            "AND c.reminderDate <= :futureDate " +
            "AND (c.isClosed = false OR c.isClosed IS NULL) " +
            "ORDER BY c.reminderDate ASC")
-    Page<Customer> findFollowUpCustomersForUser(
+    Slice<CustomerListView> findFollowUpCustomersSliceForUser(
             @Param("userId") Long userId,
             @Param("futureDate") LocalDateTime futureDate,
             Pageable pageable);
@@ -77,6 +166,57 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
            "AND (c.isClosed = false OR c.isClosed IS NULL)")
     long countFollowUpCustomersForUser(@Param("userId") Long userId, @Param("futureDate") LocalDateTime futureDate);
 
+    /**
+     * Keyset page of follow-up customers, strictly after the (reminder date, id) cursor
+     */
+    @Query(LIST_VIEW_SELECT + " FROM Customer c WHERE c.assignedTo = :userId " +
+           "AND c.customerStatusString = 'follow_up' " +
+           "AND c.reminderDate IS NOT NULL " +
+           "AND c.reminderDate <= :futureDate " +
+           "AND (c.isClosed = false OR c.isClosed IS NULL) " +
+           "AND (c.reminderDate > :cursorKey OR (c.reminderDate = :cursorKey AND c.id > :cursorId)) " +
+           "ORDER BY c.reminderDate ASC, c.id ASC")
+    List<CustomerListView> findFollowUpCustomersForUserAfter(
+            @Param("userId") Long userId,
+            @Param("futureDate") LocalDateTime futureDate,
+            @Param("cursorKey") LocalDateTime cursorKey,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    /**
+     * Delta sync: customers currently assigned to the user, after the (updated_at, id) watermark
+     * Used for the initial sync, when the client holds no rows and needs no tombstones
+     */
+    @Query(LIST_VIEW_SELECT + " FROM Customer c WHERE c.assignedTo = :userId " +
+           "AND (" + SYNC_KEY + " > :sinceKey OR (" + SYNC_KEY + " = :sinceKey AND c.id > :sinceId)) " +
+           "AND " + SYNC_KEY + " <= :upperBound " +
+           "ORDER BY " + SYNC_KEY + " ASC, c.id ASC")
+    List<CustomerListView> findAssignedCustomersChangedAfter(
+            @Param("userId") Long userId,
+            @Param("floor") LocalDateTime floor,
+            @Param("sinceKey") LocalDateTime sinceKey,
+            @Param("sinceId") Long sinceId,
+            @Param("upperBound") LocalDateTime upperBound,
+            Pageable pageable);
+
+    /**
+     * Delta sync: customers assigned to the user or last updated by the user, after the watermark
+     * Rows updated by the user but no longer assigned to them are the tombstones (closed and unassigned by
+     * updateCustomerStatusAndUnassignIfClosed). Rows someone else moved away from the user are not matched;
+     * CustomerService.getCustomerChangesSince forces a periodic full sync to drop those
+     */
+    @Query(LIST_VIEW_SELECT + " FROM Customer c WHERE (c.assignedTo = :userId OR c.statusUpdatedBy = :userId) " +
+           "AND (" + SYNC_KEY + " > :sinceKey OR (" + SYNC_KEY + " = :sinceKey AND c.id > :sinceId)) " +
+           "AND " + SYNC_KEY + " <= :upperBound " +
+           "ORDER BY " + SYNC_KEY + " ASC, c.id ASC")
+    List<CustomerListView> findCustomerChangesForUserAfter(
+            @Param("userId") Long userId,
+            @Param("floor") LocalDateTime floor,
+            @Param("sinceKey") LocalDateTime sinceKey,
+            @Param("sinceId") Long sinceId,
+            @Param("upperBound") LocalDateTime upperBound,
+            Pageable pageable);
+
     /**
      * Find unassigned customers available for assignment
      */
@@ -147,10 +287,35 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
      * These are customers that were previously assigned to the user but are now closed
      * We need to track this through status_updated_by field since assignedTo is NULL for closed customers
      */
-    @Query("SELECT c FROM Customer c WHERE c.statusUpdatedBy = :userId " +
+    @Query(value = LIST_VIEW_SELECT + " FROM Customer c WHERE c.statusUpdatedBy = :userId " +
+           "AND c.isClosed = true " +
+           "ORDER BY c.lastStatusUpdated DESC",
+           countQuery = "SELECT COUNT(c) FROM Customer c WHERE c.statusUpdatedBy = :userId " +
+           "AND c.isClosed = true")
+    Page<CustomerListView> findSubmittedCustomersForUser(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Slice variant of findSubmittedCustomersForUser - no COUNT query is issued
+     */
+    @Query(LIST_VIEW_SELECT + " FROM Customer c WHERE c.statusUpdatedBy = :userId " +
            "AND c.isClosed = true " +
            "ORDER BY c.lastStatusUpdated DESC")
-    Page<Customer> findSubmittedCustomersForUser(@Param("userId") Long userId, Pageable pageable);
+    Slice<CustomerListView> findSubmittedCustomersSliceForUser(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Keyset page of submitted customers, strictly after the (last status update, id) cursor
+     */
+    @Query(LIST_VIEW_SELECT + " FROM Customer c WHERE c.statusUpdatedBy = :userId " +
+           "AND c.isClosed = true " +
+           "AND (COALESCE(c.lastStatusUpdated, :floor) < :cursorKey " +
+           "OR (COALESCE(c.lastStatusUpdated, :floor) = :cursorKey AND c.id < :cursorId)) " +
+           "ORDER BY COALESCE(c.lastStatusUpdated, :floor) DESC, c.id DESC")
+    List<CustomerListView> findSubmittedCustomersForUserAfter(
+            @Param("userId") Long userId,
+            @Param("floor") LocalDateTime floor,
+            @Param("cursorKey") LocalDateTime cursorKey,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
     
     /**
      * Get status breakdown for submitted customers for a user
@@ -162,18 +327,6 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
            "ORDER BY c.customerStatusString")
     List<Object[]> getStatusBreakdownForSubmittedCustomers(@Param("userId") Long userId);
 
-    /**
-     * Find customers by mobile number for search
-     */
-    List<Customer> findByMobileNumberContaining(String mobileNumber);
-
-    /**
-     * Find customers by name (first name only since lastName removed from database)
-     */
-    @Query("SELECT c FROM Customer c WHERE " +
-           "LOWER(c.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<Customer> findByNameContaining(@Param("searchTerm") String searchTerm);
-
     /**
      * Find customers by state with pagination
      */
@@ -275,6 +428,40 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
            "ORDER BY COUNT(c) DESC")
     List<Object[]> getCustomerStatusBreakdown();
     
+    /**
+     * Per-state totals for the admin states summary, aggregated in the database
+     * Returns: state, total, closed, assigned, distinct assignees
+     */
+    @Query("SELECT c.state, COUNT(c), " +
+           "SUM(CASE WHEN c.isClosed = true THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN c.assignedTo IS NOT NULL THEN 1 ELSE 0 END), " +
+           "COUNT(DISTINCT c.assignedTo) " +
+           "FROM Customer c " +
+           "WHERE c.state IS NOT NULL AND TRIM(c.state) <> '' " +
+           "GROUP BY c.state")
+    List<Object[]> getStateSummaryAggregates();
+    
+    /**
+     * Row counts for one state's metrics card, aggregated in the database
+     * Returns a single row: total, with first name, with mobile number
+     */
+    @Query("SELECT COUNT(c), " +
+           "SUM(CASE WHEN c.firstName IS NOT NULL AND TRIM(c.firstName) <> '' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN c.mobileNumber IS NOT NULL AND TRIM(c.mobileNumber) <> '' THEN 1 ELSE 0 END) " +
+           "FROM Customer c WHERE c.state = :state")
+    List<Object[]> getStateMetricAggregates(@Param("state") String state);
+    
+    /**
+     * Same as getStateMetricAggregates, limited to customers created in [fromDate, toDate)
+     */
+    @Query("SELECT COUNT(c), " +
+           "SUM(CASE WHEN c.firstName IS NOT NULL AND TRIM(c.firstName) <> '' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN c.mobileNumber IS NOT NULL AND TRIM(c.mobileNumber) <> '' THEN 1 ELSE 0 END) " +
+           "FROM Customer c WHERE c.state = :state AND c.createdAt >= :fromDate AND c.createdAt < :toDate")
+    List<Object[]> getStateMetricAggregatesBetween(@Param("state") String state,
+                                                   @Param("fromDate") LocalDateTime fromDate,
+                                                   @Param("toDate") LocalDateTime toDate);
+    
     /**
      * Find customers by assigned user with pagination
      */
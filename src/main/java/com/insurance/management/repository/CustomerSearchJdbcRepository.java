@@ -0,0 +1,309 @@
+package com.insurance.management.repository;
+
+import com.insurance.management.entity.Customer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Customer Search JDBC Repository - Trigram postings, indexer watermark and candidate lookup
+ * for customer_search_grams / customer_search_state
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerSearchJdbcRepository {
+
+    // Columns the indexer reads from customers
+    private static final String DOCUMENT_COLUMNS =
+            "c.id, c.firstname, c.mobilenumber, c.registrationnum, c.chassisnum, c.enginenum, c.updated_at";
+
+    private static final String NEW_DOCUMENTS_SQL =
+            "SELECT " + DOCUMENT_COLUMNS + " FROM customers c WHERE c.id > ? " +
+            "ORDER BY c.id OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
+
+    private static final String CHANGED_DOCUMENTS_SQL =
+            "SELECT " + DOCUMENT_COLUMNS + " FROM customers c " +
+            "WHERE (c.updated_at > ? OR (c.updated_at = ? AND c.id > ?)) AND c.updated_at <= ? " +
+            "ORDER BY c.updated_at, c.id OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
+
+    // Rows in an id range with no postings - inserts that committed after the id pass read past them
+    private static final String UNINDEXED_DOCUMENTS_SQL =
+            "SELECT " + DOCUMENT_COLUMNS + " FROM customers c WHERE c.id > ? AND c.id <= ? " +
+            "AND NOT EXISTS (SELECT 1 FROM customer_search_grams g WHERE g.customer_id = c.id) " +
+            "ORDER BY c.id OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
+
+    private static final String INSERT_GRAM_SQL =
+            "INSERT INTO customer_search_grams (gram, customer_id) VALUES (?, ?)";
+
+    private static final String STATE_COLUMNS = "last_customer_id, last_updated_at, last_updated_id";
+
+    // Customers holding every one of the query grams; %s = gram placeholders, scope filters appended
+    private static final String CANDIDATES_SQL =
+            "SELECT " + CustomerJdbcRepository.RESPONSE_COLUMNS + ", c.chassisnum, c.enginenum FROM customers c " +
+            "WHERE c.id IN (SELECT g.customer_id FROM customer_search_grams g WHERE g.gram IN (%s) " +
+            "GROUP BY g.customer_id HAVING COUNT(*) = ?)";
+
+    // Searchable columns the candidate query checks for a prefix match, so the limit keeps exact and prefix hits
+    private static final List<String> PREFIX_COLUMNS =
+            List.of("firstname", "mobilenumber", "registrationnum", "chassisnum", "enginenum");
+
+    // Suffix lookup as a range seek on the reversed column; %s = column, scope filters appended
+    private static final String SUFFIX_SQL =
+            "SELECT " + CustomerJdbcRepository.RESPONSE_COLUMNS + ", c.chassisnum, c.enginenum FROM customers c " +
+            "WHERE c.%s LIKE ?";
+
+    // SQL Server allows ~2100 parameters per statement
+    private static final int IN_LIST_CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Customers with an id above the given one, in id order - the initial build and newly inserted rows
+     */
+    public List<Customer> findDocumentsAfterId(long afterId, int limit) {
+        return jdbcTemplate.query(NEW_DOCUMENTS_SQL, (rs, rowNum) -> mapDocument(rs), afterId, limit);
+    }
+
+    /**
+     * Customers without postings and an id in (afterId, upToId], in id order
+     */
+    public List<Customer> findUnindexedDocumentsBetween(long afterId, long upToId, int limit) {
+        return jdbcTemplate.query(UNINDEXED_DOCUMENTS_SQL, (rs, rowNum) -> mapDocument(rs), afterId, upToId, limit);
+    }
+
+    /**
+     * Customers changed strictly after the (updated_at, id) cursor and no later than upperBound, in cursor order
+     */
+    public List<Customer> findDocumentsChangedAfter(LocalDateTime updatedAt, long afterId, LocalDateTime upperBound,
+                                                    int limit) {
+        Timestamp cursor = Timestamp.valueOf(updatedAt);
+        return jdbcTemplate.query(CHANGED_DOCUMENTS_SQL, (rs, rowNum) -> mapDocument(rs), cursor, cursor, afterId,
+                Timestamp.valueOf(upperBound), limit);
+    }
+
+    /**
+     * Replace the postings of the given customers; an empty gram set removes the customer from the index
+     */
+    public void replaceGrams(Map<Long, Set<String>> gramsByCustomer) {
+        List<Long> ids = new ArrayList<>(gramsByCustomer.keySet());
+        for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, ids.size()));
+            jdbcTemplate.update("DELETE FROM customer_search_grams WHERE customer_id IN (" + placeholders(chunk) + ")",
+                    chunk.toArray());
+        }
+
+        List<Object[]> postings = new ArrayList<>();
+        gramsByCustomer.forEach((customerId, grams) -> {
+            for (String gram : grams) {
+                postings.add(new Object[]{gram, customerId});
+            }
+        });
+        jdbcTemplate.batchUpdate(INSERT_GRAM_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                statement.setString(1, (String) postings.get(i)[0]);
+                statement.setLong(2, (Long) postings.get(i)[1]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return postings.size();
+            }
+        });
+    }
+
+    /**
+     * Customers in scope that contain every query gram, at most limit rows: those with a field starting with
+     * the (normalized, letters and digits only) query first, then newest first.
+     * assignedTo and state are optional scope filters.
+     */
+    public List<Customer> findCandidates(Collection<String> grams, String query, Long assignedTo, String state, int limit) {
+        StringBuilder sql = new StringBuilder(String.format(CANDIDATES_SQL, placeholders(grams)));
+        List<Object> params = new ArrayList<>(grams);
+        params.add(grams.size());
+        if (assignedTo != null) {
+            sql.append(" AND c.assigned_to = ?");
+            params.add(assignedTo);
+        }
+        if (state != null) {
+            sql.append(" AND c.state = ?");
+            params.add(state);
+        }
+        sql.append(" ORDER BY CASE WHEN ");
+        for (int i = 0; i < PREFIX_COLUMNS.size(); i++) {
+            sql.append(i > 0 ? " OR " : "").append(normalizedColumn(PREFIX_COLUMNS.get(i))).append(" LIKE ?");
+            params.add(query + "%");
+        }
+        sql.append(" THEN 0 ELSE 1 END, c.id DESC OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY");
+        params.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            Customer customer = CustomerJdbcRepository.mapResponseColumns(rs);
+            customer.setChassisNumber(rs.getString("chassisnum"));
+            customer.setEngineNumber(rs.getString("enginenum"));
+            return customer;
+        }, params.toArray());
+    }
+
+    // Close to CustomerSearchService.normalize: lower case without the separators numbers are usually typed with
+    private static String normalizedColumn(String column) {
+        return "LOWER(REPLACE(REPLACE(REPLACE(c." + column + ", ' ', ''), '-', ''), '+', ''))";
+    }
+
+    /**
+     * Customers whose number ends with the given suffix, in reversed-key order, at most limit rows.
+     * The suffix must contain no LIKE wildcards; assignedTo and state are optional scope filters.
+     */
+    public List<Customer> findBySuffix(SuffixField field, String suffix, Long assignedTo, String state, int limit) {
+        StringBuilder sql = new StringBuilder(String.format(SUFFIX_SQL, field.getColumn()));
+        List<Object> params = new ArrayList<>();
+        params.add(new StringBuilder(suffix).reverse() + "%");
+        if (assignedTo != null) {
+            sql.append(" AND c.assigned_to = ?");
+            params.add(assignedTo);
+        }
+        if (state != null) {
+            sql.append(" AND c.state = ?");
+            params.add(state);
+        }
+        sql.append(" ORDER BY c.").append(field.getColumn()).append(", c.id OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY");
+        params.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            Customer customer = CustomerJdbcRepository.mapResponseColumns(rs);
+            customer.setChassisNumber(rs.getString("chassisnum"));
+            customer.setEngineNumber(rs.getString("enginenum"));
+            return customer;
+        }, params.toArray());
+    }
+
+    /**
+     * The indexer watermark, or null before the first build has started
+     */
+    public IndexState loadState() {
+        List<IndexState> states = jdbcTemplate.query(
+                "SELECT " + STATE_COLUMNS + " FROM customer_search_state WHERE id = 1",
+                (rs, rowNum) -> new IndexState(
+                        rs.getLong("last_customer_id"),
+                        rs.getTimestamp("last_updated_at").toLocalDateTime(),
+                        rs.getLong("last_updated_id")));
+        return states.isEmpty() ? null : states.get(0);
+    }
+
+    public void saveState(IndexState state, LocalDateTime now) {
+        Object[] values = {state.getLastCustomerId(), Timestamp.valueOf(state.getLastUpdatedAt()),
+                state.getLastUpdatedId(), Timestamp.valueOf(now)};
+        int updated = jdbcTemplate.update(
+                "UPDATE customer_search_state SET last_customer_id = ?, last_updated_at = ?, last_updated_id = ?, " +
+                "updated_at = ? WHERE id = 1", values);
+        if (updated == 0) {
+            jdbcTemplate.update(
+                    "INSERT INTO customer_search_state (id, " + STATE_COLUMNS + ", updated_at) VALUES (1, ?, ?, ?, ?)",
+                    values);
+        }
+    }
+
+    /**
+     * Latest customers.updated_at, or null when no row has one
+     */
+    public LocalDateTime findMaxUpdatedAt() {
+        Timestamp max = jdbcTemplate.queryForObject("SELECT MAX(c.updated_at) FROM customers c", Timestamp.class);
+        return max != null ? max.toLocalDateTime() : null;
+    }
+
+    /**
+     * Whether the search tables exist in the connected database
+     */
+    public boolean tablesExist() {
+        try {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer_search_grams WHERE 1 = 0", Long.class);
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer_search_state WHERE 1 = 0", Long.class);
+            return true;
+        } catch (Exception e) {
+            log.debug("customer search tables not available: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Whether the reversed suffix columns exist on customers
+     */
+    public boolean suffixColumnsExist() {
+        try {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customers c WHERE 1 = 0 AND c.mobile_rev IS NULL " +
+                    "AND c.registration_rev IS NULL", Long.class);
+            return true;
+        } catch (Exception e) {
+            log.debug("customer suffix columns not available: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static Customer mapDocument(ResultSet rs) throws SQLException {
+        Customer customer = new Customer();
+        customer.setId(rs.getLong("id"));
+        customer.setFirstName(rs.getString("firstname"));
+        customer.setMobileNumber(rs.getString("mobilenumber"));
+        customer.setRegistrationNumber(rs.getString("registrationnum"));
+        customer.setChassisNumber(rs.getString("chassisnum"));
+        customer.setEngineNumber(rs.getString("enginenum"));
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        customer.setUpdatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null);
+        return customer;
+    }
+
+    private static String placeholders(Collection<?> values) {
+        return String.join(",", Collections.nCopies(values.size(), "?"));
+    }
+
+    /**
+     * Numbers with a reversed computed column for suffix lookups
+     */
+    public enum SuffixField {
+        MOBILE("mobile_rev"),
+        REGISTRATION("registration_rev");
+
+        private final String column;
+
+        SuffixField(String column) {
+            this.column = column;
+        }
+
+        public String getColumn() { return column; }
+    }
+
+    /**
+     * Indexer progress: every id up to lastCustomerId has been indexed once, and every change up to
+     * the (lastUpdatedAt, lastUpdatedId) cursor has been re-indexed
+     */
+    public static class IndexState {
+        private final long lastCustomerId;
+        private final LocalDateTime lastUpdatedAt;
+        private final long lastUpdatedId;
+
+        public IndexState(long lastCustomerId, LocalDateTime lastUpdatedAt, long lastUpdatedId) {
+            this.lastCustomerId = lastCustomerId;
+            this.lastUpdatedAt = lastUpdatedAt;
+            this.lastUpdatedId = lastUpdatedId;
+        }
+
+        public long getLastCustomerId() { return lastCustomerId; }
+        public LocalDateTime getLastUpdatedAt() { return lastUpdatedAt; }
+        public long getLastUpdatedId() { return lastUpdatedId; }
+    }
+}
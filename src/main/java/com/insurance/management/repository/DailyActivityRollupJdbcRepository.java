@@ -0,0 +1,172 @@
+package com.insurance.management.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Daily Activity Rollup JDBC Repository - Upserts, range reads and backfill for daily_activity_rollup
+ * Plain JDBC rather than a JPA entity so a database without the table still starts (Hibernate validate)
+ * and the service can fall back to the customers table.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class DailyActivityRollupJdbcRepository {
+
+    // HOLDLOCK makes the match-then-insert atomic, so two agents bumping a new key cannot both insert it
+    private static final String MERGE_SQL =
+            "MERGE INTO daily_activity_rollup WITH (HOLDLOCK) AS t " +
+            "USING (SELECT CAST(? AS DATE) AS activity_date, CAST(? AS NVARCHAR(100)) AS state, CAST(? AS BIGINT) AS user_id, " +
+            "CAST(? AS NVARCHAR(50)) AS customer_status, CAST(? AS BIT) AS is_closed) AS s " +
+            "ON t.activity_date = s.activity_date AND t.state = s.state AND t.user_id = s.user_id " +
+            "AND t.customer_status = s.customer_status AND t.is_closed = s.is_closed " +
+            "WHEN MATCHED THEN UPDATE SET update_count = t.update_count + ?, updated_at = ? " +
+            "WHEN NOT MATCHED THEN INSERT (activity_date, state, user_id, customer_status, is_closed, update_count, updated_at) " +
+            "VALUES (s.activity_date, s.state, s.user_id, s.customer_status, s.is_closed, ?, ?);";
+
+    // Same IST bucketing as CustomerRepository.getDailyCustomerUpdateStatsForUser
+    private static final String IST_DATE = "CAST(DATEADD(MINUTE, 330, c.last_status_updated) AS DATE)";
+
+    // Days that already have rollup rows are left alone - the rollup is more complete than the customers table
+    private static final String BACKFILL_SQL =
+            "INSERT INTO daily_activity_rollup (activity_date, state, user_id, customer_status, is_closed, update_count, updated_at) " +
+            "SELECT " + IST_DATE + ", COALESCE(c.state, ''), c.status_updated_by, c.customer_status, " +
+            "COALESCE(c.is_closed, 0), COUNT(*), ? " +
+            "FROM customers c " +
+            "WHERE c.last_status_updated >= ? AND c.status_updated_by IS NOT NULL AND c.customer_status IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM daily_activity_rollup r WHERE r.activity_date = " + IST_DATE + ") " +
+            "GROUP BY " + IST_DATE + ", COALESCE(c.state, ''), c.status_updated_by, c.customer_status, COALESCE(c.is_closed, 0)";
+
+    // Closed and open status changes per day in [fromDate, toDate]; optional state filter appended
+    private static final String DAILY_TOTALS_SQL =
+            "SELECT r.activity_date, " +
+            "SUM(CASE WHEN r.is_closed = 1 THEN r.update_count ELSE 0 END), " +
+            "SUM(CASE WHEN r.is_closed = 1 THEN 0 ELSE r.update_count END) " +
+            "FROM daily_activity_rollup r WHERE r.activity_date >= ? AND r.activity_date <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Add the given counts to their rollup rows, creating rows as needed, as one JDBC batch
+     */
+    public void mergeCounts(List<RollupDelta> deltas, LocalDateTime updatedAt) {
+        Timestamp now = Timestamp.valueOf(updatedAt);
+        jdbcTemplate.batchUpdate(MERGE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                RollupDelta delta = deltas.get(i);
+                statement.setDate(1, Date.valueOf(delta.getActivityDate()));
+                statement.setString(2, delta.getState());
+                statement.setLong(3, delta.getUserId());
+                statement.setString(4, delta.getCustomerStatus());
+                statement.setBoolean(5, delta.isClosed());
+                statement.setLong(6, delta.getCount());
+                statement.setTimestamp(7, now);
+                statement.setLong(8, delta.getCount());
+                statement.setTimestamp(9, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return deltas.size();
+            }
+        });
+    }
+
+    /**
+     * Closed and open status change totals per day in [fromDate, toDate], optionally for one customer state.
+     * Days without rollup rows are absent.
+     */
+    public List<DailyTotal> getDailyTotals(LocalDate fromDate, LocalDate toDate, String state) {
+        List<Object> params = new ArrayList<>(List.of(Date.valueOf(fromDate), Date.valueOf(toDate)));
+        String sql = DAILY_TOTALS_SQL;
+        if (state != null) {
+            sql += " AND r.state = ?";
+            params.add(state);
+        }
+        sql += " GROUP BY r.activity_date";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new DailyTotal(
+                rs.getDate(1).toLocalDate(), rs.getLong(2), rs.getLong(3)), params.toArray());
+    }
+
+    /**
+     * Seed days without rollup rows from the customers' latest status changes since the given UTC time.
+     * Only the latest change per customer survives in the customers table, so backfilled days undercount.
+     */
+    public int backfillFromCustomers(LocalDateTime sinceUtc, LocalDateTime updatedAt) {
+        return jdbcTemplate.update(BACKFILL_SQL, Timestamp.valueOf(updatedAt), Timestamp.valueOf(sinceUtc));
+    }
+
+    /**
+     * Whether the rollup table exists in the connected database
+     */
+    public boolean tableExists() {
+        try {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM daily_activity_rollup WHERE 1 = 0", Long.class);
+            return true;
+        } catch (Exception e) {
+            log.debug("daily_activity_rollup not available: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Status changes on one day that closed the customer and that left it open
+     */
+    public static class DailyTotal {
+        private final LocalDate activityDate;
+        private final long completed;
+        private final long inProgress;
+
+        public DailyTotal(LocalDate activityDate, long completed, long inProgress) {
+            this.activityDate = activityDate;
+            this.completed = completed;
+            this.inProgress = inProgress;
+        }
+
+        public LocalDate getActivityDate() { return activityDate; }
+        public long getCompleted() { return completed; }
+        public long getInProgress() { return inProgress; }
+    }
+
+    /**
+     * One rollup key and the number of status changes to add to it
+     */
+    public static class RollupDelta {
+        private final LocalDate activityDate;
+        private final String state;
+        private final Long userId;
+        private final String customerStatus;
+        private final boolean closed;
+        private final long count;
+
+        public RollupDelta(LocalDate activityDate, String state, Long userId, String customerStatus,
+                           boolean closed, long count) {
+            this.activityDate = activityDate;
+            this.state = state;
+            this.userId = userId;
+            this.customerStatus = customerStatus;
+            this.closed = closed;
+            this.count = count;
+        }
+
+        public LocalDate getActivityDate() { return activityDate; }
+        public String getState() { return state; }
+        public Long getUserId() { return userId; }
+        public String getCustomerStatus() { return customerStatus; }
+        public boolean isClosed() { return closed; }
+        public long getCount() { return count; }
+    }
+}
@@ -3,6 +3,7 @@ package com.insurance.management.service;
 import com.insurance.management.dto.LoginRequest;
 import com.insurance.management.dto.LoginResponse;
 import com.insurance.management.entity.User;
+import com.insurance.management.util.JwtTokenProvider;
 import com.insurance.management.util.MobileTokenUtil;
 
 import lombok.RequiredArgsConstructor;
@@ -28,6 +29,7 @@ public class AuthenticationService {
     
     private final UserService userService;
     private final MobileTokenUtil mobileTokenUtil;
+    private final JwtTokenProvider jwtTokenProvider;
     
     // Dynamic state validation - states should be loaded from configuration or database
     // No hardcoded state list
@@ -215,46 +217,8 @@ public class AuthenticationService {
      */
     public Optional<User> validateMobileToken(String authHeader) {
         try {
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                return Optional.empty();
-            }
-            
-            String tokenData = authHeader.replace("Bearer ", "");
-            String decoded = new String(Base64.getDecoder().decode(tokenData), StandardCharsets.UTF_8);
-            String[] parts = decoded.split(":");
-            
-            if (parts.length < 4) {
-                return Optional.empty();
-            }
-            
-            Long userId = Long.parseLong(parts[0]);
-            String username = parts[1];
-            String state = parts[2];
-            long timestamp = Long.parseLong(parts[3]);
-            
-            // Check token age (24 hours max)
-            long tokenAge = System.currentTimeMillis() - timestamp;
-            long maxAge = 24 * 60 * 60 * 1000; // 24 hours
-            
-            if (tokenAge > maxAge) {
-                log.warn("⏰ Token expired for user: {}", username);
-                return Optional.empty();
-            }
-            
-            // Validate user still exists and is active
-            Optional<User> userOpt = userService.findById(userId);
-            if (userOpt.isEmpty() || !userOpt.get().isAccountActive()) {
-                log.warn("❌ User not found or inactive: {}", username);
-                return Optional.empty();
-            }
-            
-            User user = userOpt.get();
-            if (!user.getUsername().equals(username)) {
-                log.warn("❌ Username mismatch in token for user: {}", username);
-                return Optional.empty();
-            }
-            
-            return Optional.of(user);
+            // Handles both signed and legacy tokens (legacy only during the compatibility window)
+            return Optional.ofNullable(mobileTokenUtil.validateToken(authHeader));
             
         } catch (Exception e) {
             log.warn("❌ Invalid mobile token format", e);
@@ -265,6 +229,10 @@ public class AuthenticationService {
     // Private helper methods
     
     private String generateWebToken(User user) {
+        if (jwtTokenProvider.isSignedTokensEnabled()) {
+            return jwtTokenProvider.generateWebToken(user);
+        }
+        
         // Simple token format matching Node.js: Bearer base64(userId:username:timestamp)
         String tokenData = String.format("%d:%s:%d", 
             user.getId(), user.getUsername(), System.currentTimeMillis());
@@ -273,6 +241,10 @@ public class AuthenticationService {
     }
     
     private String generateMobileToken(User user, String state) {
+        if (jwtTokenProvider.isSignedTokensEnabled()) {
+            return jwtTokenProvider.generateMobileToken(user, state);
+        }
+        
         // Mobile token format matching Node.js: Bearer base64(userId:username:state:timestamp)
         String tokenData = String.format("%d:%s:%s:%d", 
             user.getId(), user.getUsername(), state, System.currentTimeMillis());
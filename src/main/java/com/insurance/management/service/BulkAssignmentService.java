@@ -0,0 +1,388 @@
+package com.insurance.management.service;
+
+import com.insurance.management.entity.User;
+import com.insurance.management.event.CustomerChangeEvent;
+import com.insurance.management.event.CustomerSnapshot;
+import com.insurance.management.repository.CustomerJdbcRepository;
+import com.insurance.management.repository.CustomerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk Assignment Service - Spreads a state's unassigned customers across a set of agents by current load
+ * The plan fills the least-loaded agent first (open customers from countOpenCustomersAssignedToUser), up to
+ * optional caps. Jobs then walk the unassigned customers newest first in id-range chunks, one short transaction
+ * per chunk, so no statement carries an id list and progress is visible while the job runs.
+ * A dry run returns the plan without writing anything.
+ */
+@Service
+@Slf4j
+public class BulkAssignmentService {
+
+    public enum JobStatus {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final CustomerRepository customerRepository;
+    private final CustomerJdbcRepository customerJdbcRepository;
+    private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor assignmentExecutor;
+    private final int chunkSize;
+    private final int maxAgents;
+    private final long jobRetentionMs;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public BulkAssignmentService(CustomerRepository customerRepository,
+                                 CustomerJdbcRepository customerJdbcRepository,
+                                 UserService userService,
+                                 ApplicationEventPublisher eventPublisher,
+                                 TransactionTemplate transactionTemplate,
+                                 @Qualifier("assignmentExecutor") ThreadPoolTaskExecutor assignmentExecutor,
+                                 @Value("${app.assignment.chunk-size:500}") int chunkSize,
+                                 @Value("${app.assignment.max-agents:200}") int maxAgents,
+                                 @Value("${app.assignment.job-retention-ms:3600000}") long jobRetentionMs) {
+        this.customerRepository = customerRepository;
+        this.customerJdbcRepository = customerJdbcRepository;
+        this.userService = userService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.assignmentExecutor = assignmentExecutor;
+        this.chunkSize = Math.max(1, Math.min(chunkSize, CustomerJdbcRepository.IN_LIST_CHUNK_SIZE));
+        this.maxAgents = Math.max(1, maxAgents);
+        this.jobRetentionMs = Math.max(0, jobRetentionMs);
+    }
+
+    /**
+     * Plan the distribution of a state's unassigned customers and, unless dryRun, start a job carrying it out.
+     * maxCustomers limits how many customers are handed out; maxLoadPerAgent caps each agent's open queue.
+     */
+    public Map<String, Object> distribute(String state, List<Long> agentIds, Integer maxCustomers,
+                                          Integer maxLoadPerAgent, boolean dryRun) {
+        if (state == null || state.isBlank()) {
+            throw new IllegalArgumentException("state is required");
+        }
+        if (agentIds == null || agentIds.isEmpty()) {
+            throw new IllegalArgumentException("agent_ids must contain at least one agent");
+        }
+        if (maxCustomers != null && maxCustomers < 1) {
+            throw new IllegalArgumentException("max_customers must be positive");
+        }
+        if (maxLoadPerAgent != null && maxLoadPerAgent < 0) {
+            throw new IllegalArgumentException("max_load_per_agent must not be negative");
+        }
+        Set<Long> uniqueIds = new LinkedHashSet<>(agentIds);
+        uniqueIds.remove(null);
+        if (uniqueIds.size() > maxAgents) {
+            throw new IllegalArgumentException("At most " + maxAgents + " agents per distribution");
+        }
+
+        String trimmedState = state.trim();
+        Job job = plan(trimmedState, loadAgents(uniqueIds, trimmedState), maxCustomers, maxLoadPerAgent, dryRun);
+        if (dryRun) {
+            log.info("🧮 Dry-run distribution for {}: {} of {} unassigned customers across {} agents",
+                    trimmedState, job.getPlanned(), job.available, job.agents.size());
+            return job.toMap();
+        }
+        if (job.getPlanned() == 0) {
+            throw new IllegalStateException("Nothing to assign in " + trimmedState +
+                    " - no unassigned customers or every agent is at capacity");
+        }
+
+        synchronized (jobs) {
+            for (Job existing : jobs.values()) {
+                if (existing.state.equalsIgnoreCase(trimmedState) && !existing.isFinished()) {
+                    throw new IllegalStateException("Distribution job " + existing.id + " is already running for " +
+                            existing.state);
+                }
+            }
+            jobs.put(job.id, job);
+        }
+        try {
+            assignmentExecutor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.id);
+            throw new IllegalStateException("Too many distribution jobs queued - try again shortly");
+        }
+        log.info("🚚 Distribution job {} queued for {}: {} customers across {} agents",
+                job.id, trimmedState, job.getPlanned(), job.agents.size());
+        return job.toMap();
+    }
+
+    /**
+     * Progress of a distribution job
+     */
+    public Optional<Map<String, Object>> getJob(String jobId) {
+        Job job = jobs.get(jobId);
+        return job != null ? Optional.of(job.toMap()) : Optional.empty();
+    }
+
+    /**
+     * All retained jobs, newest first
+     */
+    public List<Map<String, Object>> listJobs() {
+        List<Job> all = new ArrayList<>(jobs.values());
+        all.sort(Comparator.comparing((Job job) -> job.requestedAt).reversed());
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Job job : all) {
+            result.add(job.toMap());
+        }
+        return result;
+    }
+
+    /**
+     * Forget finished jobs once they are older than the retention period
+     */
+    @Scheduled(fixedDelayString = "${app.assignment.purge-interval-ms:600000}")
+    public void purgeFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(jobRetentionMs * 1_000_000);
+        jobs.values().removeIf(job -> job.isFinished() && job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private List<AgentPlan> loadAgents(Set<Long> agentIds, String state) {
+        LocalDateTime now = LocalDateTime.now();
+        List<AgentPlan> agents = new ArrayList<>();
+        for (Long agentId : agentIds) {
+            User user = userService.findById(agentId)
+                    .orElseThrow(() -> new IllegalArgumentException("Agent not found: " + agentId));
+            if (user.getUserRole() != User.UserRole.USER) {
+                throw new IllegalArgumentException("User " + agentId + " is not an agent");
+            }
+            if (!Boolean.TRUE.equals(user.getIsActive()) || Boolean.TRUE.equals(user.getIsLocked())) {
+                throw new IllegalArgumentException("Agent " + agentId + " is inactive or locked");
+            }
+            boolean inState = user.getLocationState() == null || user.getLocationState().equalsIgnoreCase(state);
+            if (!inState) {
+                log.warn("⚠️ Agent {} is located in {}, not {}", agentId, user.getLocationState(), state);
+            }
+            agents.add(new AgentPlan(agentId, user.getUsername(), inState,
+                    customerRepository.countOpenCustomersAssignedToUser(agentId, now)));
+        }
+        return agents;
+    }
+
+    // Hand customers one at a time to the agent with the lowest projected load (ties to the lower id),
+    // dropping agents that reach the cap
+    private Job plan(String state, List<AgentPlan> agents, Integer maxCustomers, Integer maxLoadPerAgent,
+                     boolean dryRun) {
+        long available = customerJdbcRepository.countUnassignedInState(state);
+        long toAssign = maxCustomers != null ? Math.min(available, maxCustomers) : available;
+
+        PriorityQueue<AgentPlan> queue = new PriorityQueue<>(
+                Comparator.comparingLong(AgentPlan::projectedLoad).thenComparingLong(agent -> agent.userId));
+        queue.addAll(agents);
+        for (long given = 0; given < toAssign && !queue.isEmpty(); ) {
+            AgentPlan agent = queue.poll();
+            if (maxLoadPerAgent != null && agent.projectedLoad() >= maxLoadPerAgent) {
+                continue;
+            }
+            agent.planned++;
+            given++;
+            queue.add(agent);
+        }
+        return new Job(dryRun ? null : UUID.randomUUID().toString(), state, agents, available, dryRun);
+    }
+
+    // Round-robin over the agents, one chunk each per pass, until every plan is met or the state runs out
+    private void run(Job job) {
+        job.status = JobStatus.RUNNING;
+        job.startedAt = LocalDateTime.now();
+        log.info("🚚 Distribution job {} started for {}", job.id, job.state);
+        try {
+            long cursor = Long.MAX_VALUE;
+            boolean exhausted = false;
+            while (!exhausted) {
+                boolean progressed = false;
+                for (AgentPlan agent : job.agents) {
+                    int remaining = agent.planned - agent.assigned.get();
+                    if (remaining <= 0) {
+                        continue;
+                    }
+                    long beforeId = cursor;
+                    int size = Math.min(chunkSize, remaining);
+                    ChunkResult chunk = transactionTemplate.execute(status ->
+                            assignChunk(job.state, agent.userId, beforeId, size));
+                    if (chunk == null || chunk.lowestId == null) {
+                        exhausted = true;
+                        break;
+                    }
+                    cursor = chunk.lowestId;
+                    agent.assigned.addAndGet(chunk.assigned);
+                    job.chunks.incrementAndGet();
+                    progressed = true;
+                }
+                if (!progressed) {
+                    break;
+                }
+            }
+            job.status = JobStatus.COMPLETED;
+            log.info("✅ Distribution job {} completed: {} of {} planned customers assigned in {} chunks",
+                    job.id, job.getAssigned(), job.getPlanned(), job.chunks.get());
+        } catch (Exception e) {
+            job.status = JobStatus.FAILED;
+            job.error = e.getMessage();
+            log.error("❌ Distribution job {} failed after {} customers", job.id, job.getAssigned(), e);
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    // Next unassigned customers below the cursor go to one agent: the id range is locked and assigned with a
+    // single fixed-shape UPDATE. Rows assigned elsewhere since the SELECT are simply not counted.
+    private ChunkResult assignChunk(String state, Long agentId, long beforeId, int size) {
+        List<Long> ids = customerJdbcRepository.findUnassignedIdsInState(state, beforeId, size);
+        if (ids.isEmpty()) {
+            return new ChunkResult(null, 0);
+        }
+        long highestId = ids.get(0);
+        long lowestId = ids.get(ids.size() - 1);
+        LocalDateTime assignedAt = LocalDateTime.now();
+
+        List<CustomerSnapshot> before = customerJdbcRepository.lockUnassignedRange(state, lowestId, highestId);
+        int assigned = customerJdbcRepository.assignUnassignedRange(state, lowestId, highestId, agentId, assignedAt);
+        if (assigned > 0) {
+            List<Long> customerIds = new ArrayList<>();
+            List<CustomerChangeEvent.RowChange> changes = new ArrayList<>();
+            for (CustomerSnapshot snapshot : before) {
+                customerIds.add(snapshot.getCustomerId());
+                changes.add(new CustomerChangeEvent.RowChange(snapshot, snapshot.afterAssignment(agentId)));
+            }
+            eventPublisher.publishEvent(CustomerChangeEvent.forUsers(
+                    CustomerChangeEvent.ChangeType.ASSIGNED, customerIds, agentId).withRowChanges(changes));
+        }
+        return new ChunkResult(lowestId, assigned);
+    }
+
+    private static class ChunkResult {
+        private final Long lowestId;
+        private final int assigned;
+
+        private ChunkResult(Long lowestId, int assigned) {
+            this.lowestId = lowestId;
+            this.assigned = assigned;
+        }
+    }
+
+    private static class AgentPlan {
+        private final Long userId;
+        private final String username;
+        private final boolean inState;
+        private final long currentLoad;
+        private int planned;
+        private final AtomicInteger assigned = new AtomicInteger(0);
+
+        private AgentPlan(Long userId, String username, boolean inState, long currentLoad) {
+            this.userId = userId;
+            this.username = username;
+            this.inState = inState;
+            this.currentLoad = currentLoad;
+        }
+
+        private long projectedLoad() {
+            return currentLoad + planned;
+        }
+
+        private Map<String, Object> toMap(boolean dryRun) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("user_id", userId);
+            map.put("username", username);
+            map.put("in_state", inState);
+            map.put("current_load", currentLoad);
+            map.put("planned", planned);
+            if (!dryRun) {
+                map.put("assigned", assigned.get());
+            }
+            map.put("projected_load", projectedLoad());
+            return map;
+        }
+    }
+
+    private static class Job {
+        private final String id;
+        private final String state;
+        private final List<AgentPlan> agents;
+        private final long available;
+        private final boolean dryRun;
+        private final LocalDateTime requestedAt = LocalDateTime.now();
+        private final AtomicLong chunks = new AtomicLong(0);
+        private volatile JobStatus status;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        private Job(String id, String state, List<AgentPlan> agents, long available, boolean dryRun) {
+            this.id = id;
+            this.state = state;
+            this.agents = agents;
+            this.available = available;
+            this.dryRun = dryRun;
+            this.status = JobStatus.QUEUED;
+        }
+
+        private boolean isFinished() {
+            return status == JobStatus.COMPLETED || status == JobStatus.FAILED;
+        }
+
+        private long getPlanned() {
+            return agents.stream().mapToLong(agent -> agent.planned).sum();
+        }
+
+        private long getAssigned() {
+            return agents.stream().mapToLong(agent -> agent.assigned.get()).sum();
+        }
+
+        private Map<String, Object> toMap() {
+            long planned = getPlanned();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("job_id", id);
+            map.put("state", state);
+            map.put("dry_run", dryRun);
+            map.put("status", dryRun ? "PLANNED" : status.name());
+            map.put("available", available);
+            map.put("planned", planned);
+            if (!dryRun) {
+                long assigned = getAssigned();
+                map.put("assigned", assigned);
+                map.put("chunks", chunks.get());
+                map.put("progress_percent", planned > 0 ? Math.min(100, assigned * 100 / planned) : 100);
+                map.put("requested_at", requestedAt);
+                map.put("started_at", startedAt);
+                map.put("finished_at", finishedAt);
+                map.put("error", error);
+            }
+            List<Map<String, Object>> agentRows = new ArrayList<>();
+            for (AgentPlan agent : agents) {
+                agentRows.add(agent.toMap(dryRun));
+            }
+            map.put("agents", agentRows);
+            return map;
+        }
+    }
+}
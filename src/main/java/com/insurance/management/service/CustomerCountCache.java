@@ -0,0 +1,146 @@
+package com.insurance.management.service;
+
+import com.insurance.management.event.CustomerChangeEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Customer Count Cache - Per-user cache of list totals for the count-free (Slice) mobile lists
+ * Totals are served from memory for up to the TTL and dropped as soon as a change to one of
+ * the user's customers commits, so a cached total is at most one TTL behind other instances.
+ */
+@Component
+@Slf4j
+public class CustomerCountCache {
+
+    private final long ttlMillis;
+    private final int maxUsers;
+
+    // userId -> (count key -> cached count)
+    private final Map<Long, Map<String, CachedCount>> counts = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong invalidations = new AtomicLong(0);
+
+    // Bumped on every invalidation so a count loaded concurrently with a write is not cached
+    private final AtomicLong generation = new AtomicLong(0);
+
+    public CustomerCountCache(@Value("${app.mobile.count-cache.ttl-seconds:60}") long ttlSeconds,
+                              @Value("${app.mobile.count-cache.max-users:5000}") int maxUsers) {
+        this.ttlMillis = Math.max(1, ttlSeconds) * 1000;
+        this.maxUsers = Math.max(1, maxUsers);
+        log.info("🔢 Customer count cache initialized - TTL: {}s, max users: {}", ttlSeconds, this.maxUsers);
+    }
+
+    /**
+     * Get a cached count for the user, computing it with the loader on a miss
+     */
+    public CountSnapshot get(Long userId, String key, Supplier<Long> loader) {
+        long now = System.currentTimeMillis();
+        Map<String, CachedCount> userCounts = counts.get(userId);
+        if (userCounts != null) {
+            CachedCount cached = userCounts.get(key);
+            if (cached != null && cached.expiresAt > now) {
+                hits.incrementAndGet();
+                return new CountSnapshot(cached.value, cached.computedAt, true);
+            }
+        }
+
+        misses.incrementAndGet();
+        long loadGeneration = generation.get();
+        long value = loader.get();
+        LocalDateTime computedAt = LocalDateTime.now();
+
+        if (generation.get() == loadGeneration && (counts.containsKey(userId) || counts.size() < maxUsers)) {
+            counts.computeIfAbsent(userId, id -> new ConcurrentHashMap<>())
+                    .put(key, new CachedCount(value, computedAt, now + ttlMillis));
+        }
+        return new CountSnapshot(value, computedAt, false);
+    }
+
+    /**
+     * Drop cached counts of every user affected by a committed customer change
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCustomerChange(CustomerChangeEvent event) {
+        generation.incrementAndGet();
+        if (event.isAllUsers()) {
+            invalidations.addAndGet(counts.size());
+            counts.clear();
+        } else {
+            for (Long userId : event.getUserIds()) {
+                if (counts.remove(userId) != null) {
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+        log.debug("🧹 Customer count cache invalidated for {}", event);
+    }
+
+    /**
+     * Remove expired counts - runs every minute
+     */
+    @Scheduled(fixedRate = 60000) // 1 minute
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        counts.values().forEach(userCounts -> userCounts.values().removeIf(cached -> cached.expiresAt <= now));
+        counts.values().removeIf(Map::isEmpty);
+    }
+
+    /**
+     * Get cache statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("users", counts.size());
+        stats.put("max_users", maxUsers);
+        stats.put("ttl_seconds", ttlMillis / 1000);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    /**
+     * A count plus when it was computed and whether it came from the cache
+     */
+    public static class CountSnapshot {
+        private final long value;
+        private final LocalDateTime computedAt;
+        private final boolean cached;
+
+        public CountSnapshot(long value, LocalDateTime computedAt, boolean cached) {
+            this.value = value;
+            this.computedAt = computedAt;
+            this.cached = cached;
+        }
+
+        public long getValue() { return value; }
+        public LocalDateTime getComputedAt() { return computedAt; }
+        public boolean isCached() { return cached; }
+    }
+
+    private static class CachedCount {
+        private final long value;
+        private final LocalDateTime computedAt;
+        private final long expiresAt;
+
+        private CachedCount(long value, LocalDateTime computedAt, long expiresAt) {
+            this.value = value;
+            this.computedAt = computedAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,454 @@
+package com.insurance.management.service;
+
+import com.insurance.management.entity.Customer;
+import com.insurance.management.repository.CustomerSearchJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Customer Search Service - Ranked, paginated search over a trigram index of customers
+ * Name, mobile, registration, chassis and engine numbers are normalized (lower case, letters and digits only)
+ * and split into 3-character grams stored in customer_search_grams. A query fetches the in-scope customers
+ * holding all of its grams (prefix matches first, so the candidate limit never cuts them for older substring
+ * matches), drops false positives and ranks exact > prefix > substring matches.
+ * A background indexer builds the table once and then follows customers.updated_at, holding back the last
+ * few seconds and re-checking the newest ids so rows that commit late are not skipped.
+ * Suffix lookups on mobile and registration numbers use the reversed computed columns instead.
+ */
+@Service
+@Slf4j
+public class CustomerSearchService {
+
+    public static final int MIN_TERM_LENGTH = 3;
+    public static final int MIN_SUFFIX_LENGTH = 4;
+    private static final int MAX_SUFFIX_LENGTH = 20;
+    private static final int GRAM_LENGTH = 3;
+    // More grams narrow the candidates little but cost a wider IN list
+    private static final int MAX_QUERY_GRAMS = 12;
+    private static final LocalDateTime WATERMARK_FLOOR = LocalDateTime.of(1900, 1, 1, 0, 0);
+
+    private static final int EXACT_SCORE = 100;
+    private static final int PREFIX_SCORE = 80;
+    private static final int SUBSTRING_SCORE = 50;
+    private static final int SUFFIX_SCORE = 90;
+
+    // Searchable fields with a bonus for identifiers, which are more specific than names
+    private static final Map<String, Function<Customer, String>> FIELDS = new LinkedHashMap<>();
+    private static final Map<String, Integer> FIELD_BONUS = new HashMap<>();
+    static {
+        FIELDS.put("mobilenumber", Customer::getMobileNumber);
+        FIELDS.put("registrationnum", Customer::getRegistrationNumber);
+        FIELDS.put("chassisnum", Customer::getChassisNumber);
+        FIELDS.put("enginenum", Customer::getEngineNumber);
+        FIELDS.put("firstname", Customer::getFirstName);
+        FIELD_BONUS.put("mobilenumber", 5);
+        FIELD_BONUS.put("registrationnum", 5);
+        FIELD_BONUS.put("chassisnum", 5);
+        FIELD_BONUS.put("enginenum", 5);
+        FIELD_BONUS.put("firstname", 0);
+    }
+
+    private final CustomerSearchJdbcRepository searchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final int maxResults;
+    private final int maxPageSize;
+    private final int candidateLimit;
+    private final long safetyLagSeconds;
+    private final int trailingIdWindow;
+
+    // Set once the tables have been found; until then search reports itself unavailable
+    private volatile boolean available;
+    private volatile boolean suffixAvailable;
+    private final Object indexMonitor = new Object();
+
+    private final AtomicLong indexRuns = new AtomicLong(0);
+    private final AtomicLong documentsIndexed = new AtomicLong(0);
+    private final AtomicLong searches = new AtomicLong(0);
+    private final AtomicLong suffixLookups = new AtomicLong(0);
+    private volatile long lastRunMillis;
+    private volatile CustomerSearchJdbcRepository.IndexState lastState;
+
+    public CustomerSearchService(CustomerSearchJdbcRepository searchRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${app.search.enabled:true}") boolean enabled,
+                                 @Value("${app.search.batch-size:1000}") int batchSize,
+                                 @Value("${app.search.max-batches-per-run:20}") int maxBatchesPerRun,
+                                 @Value("${app.search.max-results:200}") int maxResults,
+                                 @Value("${app.search.max-page-size:50}") int maxPageSize,
+                                 @Value("${app.search.candidate-limit:500}") int candidateLimit,
+                                 @Value("${app.search.safety-lag-seconds:5}") long safetyLagSeconds,
+                                 @Value("${app.search.trailing-id-window:1000}") int trailingIdWindow) {
+        this.searchRepository = searchRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatchesPerRun = Math.max(1, maxBatchesPerRun);
+        this.maxResults = Math.max(1, maxResults);
+        this.maxPageSize = Math.max(1, maxPageSize);
+        this.candidateLimit = Math.max(this.maxResults, candidateLimit);
+        this.safetyLagSeconds = Math.max(0, safetyLagSeconds);
+        this.trailingIdWindow = Math.max(0, trailingIdWindow);
+    }
+
+    /**
+     * Check for the search tables once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkTables() {
+        if (!enabled) {
+            log.info("🔍 Customer search disabled");
+            return;
+        }
+        available = searchRepository.tablesExist();
+        suffixAvailable = searchRepository.suffixColumnsExist();
+        if (available) {
+            log.info("🔍 Customer search enabled");
+        } else {
+            log.error("❌ customer_search_grams table not found - customer search is unavailable. " +
+                    "Check that the db/migration scripts have run (mvn -Pmigrate flyway:migrate).");
+        }
+        if (!suffixAvailable) {
+            log.error("❌ customers.mobile_rev / registration_rev not found - suffix lookup is unavailable. " +
+                    "Check that the db/migration scripts have run (mvn -Pmigrate flyway:migrate).");
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Index new and changed customers - at most maxBatchesPerRun batches per run, so the initial build
+     * of a large table is spread over several runs
+     */
+    @Scheduled(fixedDelayString = "${app.search.refresh-interval-ms:30000}",
+               initialDelayString = "${app.search.initial-delay-ms:15000}")
+    public void refresh() {
+        if (!available) {
+            return;
+        }
+        synchronized (indexMonitor) {
+            long startTime = System.currentTimeMillis();
+            // Same rule as the mobile delta sync: changes newer than now - lag may still have uncommitted
+            // neighbours with an earlier updated_at, so they wait for the next run
+            LocalDateTime upperBound = LocalDateTime.now().minusSeconds(safetyLagSeconds);
+            CustomerSearchJdbcRepository.IndexState state = searchRepository.loadState();
+            if (state == null) {
+                // Rows changed during the build are caught by the change pass from this point on
+                LocalDateTime maxUpdatedAt = searchRepository.findMaxUpdatedAt();
+                LocalDateTime start = maxUpdatedAt != null && maxUpdatedAt.isBefore(upperBound) ? maxUpdatedAt : upperBound;
+                state = new CustomerSearchJdbcRepository.IndexState(0L, start, 0L);
+                log.info("🔍 Building customer search index");
+            }
+
+            int batches = 0;
+            int indexed = 0;
+            // Inserts that took a lower IDENTITY value but committed after the id pass read past it
+            if (state.getLastCustomerId() > 0 && trailingIdWindow > 0) {
+                List<Customer> documents = searchRepository.findUnindexedDocumentsBetween(
+                        Math.max(0L, state.getLastCustomerId() - trailingIdWindow), state.getLastCustomerId(), batchSize);
+                if (!documents.isEmpty()) {
+                    indexBatch(documents, state);
+                    indexed += documents.size();
+                    batches++;
+                }
+            }
+            // New rows, in id order
+            while (batches < maxBatchesPerRun) {
+                List<Customer> documents = searchRepository.findDocumentsAfterId(state.getLastCustomerId(), batchSize);
+                if (documents.isEmpty()) {
+                    break;
+                }
+                Customer last = documents.get(documents.size() - 1);
+                state = new CustomerSearchJdbcRepository.IndexState(
+                        last.getId(), state.getLastUpdatedAt(), state.getLastUpdatedId());
+                indexBatch(documents, state);
+                indexed += documents.size();
+                batches++;
+                if (documents.size() < batchSize) {
+                    break;
+                }
+            }
+            // Changed rows, in (updated_at, id) order
+            while (batches < maxBatchesPerRun) {
+                List<Customer> documents = searchRepository.findDocumentsChangedAfter(
+                        state.getLastUpdatedAt(), state.getLastUpdatedId(), upperBound, batchSize);
+                if (documents.isEmpty()) {
+                    break;
+                }
+                Customer last = documents.get(documents.size() - 1);
+                state = new CustomerSearchJdbcRepository.IndexState(
+                        state.getLastCustomerId(), last.getUpdatedAt(), last.getId());
+                indexBatch(documents, state);
+                indexed += documents.size();
+                batches++;
+                if (documents.size() < batchSize) {
+                    break;
+                }
+            }
+
+            lastState = state;
+            indexRuns.incrementAndGet();
+            documentsIndexed.addAndGet(indexed);
+            lastRunMillis = System.currentTimeMillis() - startTime;
+            if (indexed > 0) {
+                log.info("🔍 Search index updated - {} customers in {} batches, {}ms", indexed, batches, lastRunMillis);
+            }
+        }
+    }
+
+    /**
+     * Ranked search within the given scope (assignee and/or state; both null searches every customer).
+     * Results are capped at maxResults; page is 1-based.
+     */
+    public SearchResult search(String term, Long assignedTo, String state, int page, int size) {
+        if (!available) {
+            throw new IllegalStateException("Customer search index not available");
+        }
+        String query = normalize(term);
+        if (query.length() < MIN_TERM_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Search term must contain at least " + MIN_TERM_LENGTH + " letters or digits");
+        }
+        searches.incrementAndGet();
+
+        String scopeState = state != null && !state.isBlank() ? state.trim() : null;
+        List<Customer> candidates = searchRepository.findCandidates(queryGrams(query), query, assignedTo, scopeState, candidateLimit);
+
+        List<Hit> ranked = new ArrayList<>();
+        for (Customer candidate : candidates) {
+            Hit hit = rank(candidate, query);
+            if (hit != null) {
+                ranked.add(hit);
+            }
+        }
+        ranked.sort(Comparator.comparingInt(Hit::getScore).reversed()
+                .thenComparing(hit -> hit.getCustomer().getId(), Comparator.reverseOrder()));
+
+        boolean truncated = candidates.size() >= candidateLimit || ranked.size() > maxResults;
+        List<Hit> capped = ranked.size() > maxResults ? ranked.subList(0, maxResults) : ranked;
+
+        int pageNumber = Math.max(1, page);
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        int from = Math.min((pageNumber - 1) * pageSize, capped.size());
+        int to = Math.min(from + pageSize, capped.size());
+        return new SearchResult(new ArrayList<>(capped.subList(from, to)), capped.size(), pageNumber, pageSize,
+                to < capped.size(), truncated);
+    }
+
+    /**
+     * Customers whose mobile or registration number ends with the given digits/characters, exact matches first.
+     * Runs as a prefix range seek on the reversed columns; only letters and digits of the suffix are used.
+     */
+    public SearchResult lookupBySuffix(String suffix, Long assignedTo, String state, int size) {
+        if (!suffixAvailable) {
+            throw new IllegalStateException("Customer suffix lookup not available");
+        }
+        String query = normalize(suffix);
+        if (query.length() < MIN_SUFFIX_LENGTH || query.length() > MAX_SUFFIX_LENGTH) {
+            throw new IllegalArgumentException("Suffix must contain " + MIN_SUFFIX_LENGTH + " to "
+                    + MAX_SUFFIX_LENGTH + " letters or digits");
+        }
+        suffixLookups.incrementAndGet();
+
+        String scopeState = state != null && !state.isBlank() ? state.trim() : null;
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+        // Mobile numbers hold only digits, so a suffix with letters can only be a registration
+        boolean digitsOnly = query.chars().allMatch(Character::isDigit);
+        String storedCase = query.toUpperCase(Locale.ROOT);
+
+        Map<Long, Hit> hits = new LinkedHashMap<>();
+        boolean truncated = false;
+        for (CustomerSearchJdbcRepository.SuffixField field : CustomerSearchJdbcRepository.SuffixField.values()) {
+            if (field == CustomerSearchJdbcRepository.SuffixField.MOBILE && !digitsOnly) {
+                continue;
+            }
+            String fieldName = field == CustomerSearchJdbcRepository.SuffixField.MOBILE ? "mobilenumber" : "registrationnum";
+            List<Customer> matches = searchRepository.findBySuffix(field, storedCase, assignedTo, scopeState, limit);
+            truncated |= matches.size() >= limit;
+            for (Customer customer : matches) {
+                String value = normalize(FIELDS.get(fieldName).apply(customer));
+                if (!value.endsWith(query)) {
+                    continue;
+                }
+                int score = value.equals(query) ? EXACT_SCORE : SUFFIX_SCORE;
+                Hit previous = hits.get(customer.getId());
+                if (previous == null || score > previous.getScore()) {
+                    hits.put(customer.getId(), new Hit(customer, score, fieldName));
+                }
+            }
+        }
+
+        List<Hit> ranked = new ArrayList<>(hits.values());
+        ranked.sort(Comparator.comparingInt(Hit::getScore).reversed()
+                .thenComparing(hit -> hit.getCustomer().getId(), Comparator.reverseOrder()));
+        truncated |= ranked.size() > limit;
+        List<Hit> page = ranked.size() > limit ? ranked.subList(0, limit) : ranked;
+        return new SearchResult(new ArrayList<>(page), page.size(), 1, limit, false, truncated);
+    }
+
+    /**
+     * Get search and indexer statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("available", available);
+        stats.put("index_runs", indexRuns.get());
+        stats.put("documents_indexed", documentsIndexed.get());
+        stats.put("last_run_ms", lastRunMillis);
+        stats.put("searches", searches.get());
+        stats.put("suffix_available", suffixAvailable);
+        stats.put("suffix_lookups", suffixLookups.get());
+        stats.put("max_results", maxResults);
+        stats.put("candidate_limit", candidateLimit);
+        CustomerSearchJdbcRepository.IndexState state = lastState;
+        if (state != null) {
+            stats.put("last_customer_id", state.getLastCustomerId());
+            stats.put("last_updated_at", state.getLastUpdatedAt());
+        }
+        return stats;
+    }
+
+    // Grams and watermark commit together, so a failed batch is simply retried on the next run
+    private void indexBatch(List<Customer> documents, CustomerSearchJdbcRepository.IndexState state) {
+        Map<Long, Set<String>> gramsByCustomer = new LinkedHashMap<>();
+        for (Customer document : documents) {
+            Set<String> grams = new LinkedHashSet<>();
+            for (Function<Customer, String> field : FIELDS.values()) {
+                addGrams(normalize(field.apply(document)), grams);
+            }
+            gramsByCustomer.put(document.getId(), grams);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            searchRepository.replaceGrams(gramsByCustomer);
+            searchRepository.saveState(state, LocalDateTime.now());
+        });
+    }
+
+    // Best-scoring field that really contains the query; null for trigram false positives
+    private static Hit rank(Customer customer, String query) {
+        Hit best = null;
+        for (Map.Entry<String, Function<Customer, String>> field : FIELDS.entrySet()) {
+            String value = normalize(field.getValue().apply(customer));
+            int score;
+            if (value.equals(query)) {
+                score = EXACT_SCORE;
+            } else if (value.startsWith(query)) {
+                score = PREFIX_SCORE;
+            } else if (value.contains(query)) {
+                score = SUBSTRING_SCORE;
+            } else {
+                continue;
+            }
+            score += FIELD_BONUS.get(field.getKey());
+            if (best == null || score > best.getScore()) {
+                best = new Hit(customer, score, field.getKey());
+            }
+        }
+        return best;
+    }
+
+    // Spread over the whole term when it has more grams than the IN list takes
+    private static List<String> queryGrams(String query) {
+        List<String> grams = new ArrayList<>(addGrams(query, new LinkedHashSet<>()));
+        if (grams.size() <= MAX_QUERY_GRAMS) {
+            return grams;
+        }
+        List<String> sampled = new ArrayList<>(MAX_QUERY_GRAMS);
+        for (int i = 0; i < MAX_QUERY_GRAMS; i++) {
+            sampled.add(grams.get(i * (grams.size() - 1) / (MAX_QUERY_GRAMS - 1)));
+        }
+        return sampled;
+    }
+
+    private static Set<String> addGrams(String value, Set<String> grams) {
+        for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    // Lower case letters and digits only, so "KA 01 AB 1234" and "ka01ab1234" match
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(value.length());
+        for (char ch : value.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (Character.isLetterOrDigit(ch)) {
+                normalized.append(ch);
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * A matching customer with its score and the field that matched best
+     */
+    public static class Hit {
+        private final Customer customer;
+        private final int score;
+        private final String matchedField;
+
+        private Hit(Customer customer, int score, String matchedField) {
+            this.customer = customer;
+            this.score = score;
+            this.matchedField = matchedField;
+        }
+
+        public Customer getCustomer() { return customer; }
+        public int getScore() { return score; }
+        public String getMatchedField() { return matchedField; }
+    }
+
+    /**
+     * One page of ranked hits; total counts the ranked hits up to the result cap
+     */
+    public static class SearchResult {
+        private final List<Hit> hits;
+        private final int total;
+        private final int page;
+        private final int pageSize;
+        private final boolean hasNext;
+        private final boolean truncated;
+
+        private SearchResult(List<Hit> hits, int total, int page, int pageSize, boolean hasNext, boolean truncated) {
+            this.hits = Collections.unmodifiableList(hits);
+            this.total = total;
+            this.page = page;
+            this.pageSize = pageSize;
+            this.hasNext = hasNext;
+            this.truncated = truncated;
+        }
+
+        public List<Hit> getHits() { return hits; }
+        public int getTotal() { return total; }
+        public int getPage() { return page; }
+        public int getPageSize() { return pageSize; }
+        public boolean isHasNext() { return hasNext; }
+        public boolean isTruncated() { return truncated; }
+    }
+}
@@ -1,19 +1,34 @@
 package com.insurance.management.service;
 
 import com.insurance.management.dto.CustomerDTO;
+import com.insurance.management.dto.CustomerListView;
 import com.insurance.management.entity.Customer;
+import com.insurance.management.event.CustomerChangeEvent;
+import com.insurance.management.event.CustomerSnapshot;
+import com.insurance.management.repository.CustomerJdbcRepository;
 import com.insurance.management.repository.CustomerRepository;
+import com.insurance.management.util.CursorCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Customer Service - Business logic layer for Customer operations
@@ -25,13 +40,30 @@ import java.util.Optional;
 @Transactional
 public class CustomerService {
 
+    // Keyset sentinels: rows without a sort date use the floor, a missing cursor starts at the ceiling
+    private static final LocalDateTime KEYSET_FLOOR = LocalDateTime.of(1900, 1, 1, 0, 0);
+    private static final LocalDateTime KEYSET_CEILING = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     private final CustomerRepository customerRepository;
+    private final CustomerJdbcRepository customerJdbcRepository;
+    private final CustomerCountCache countCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserAnalyticsStore analyticsStore;
+
+    // Rows newer than now - lag are held back until the next poll, so a transaction that commits
+    // late with an older updated_at cannot slip behind a watermark the client already holds
+    @Value("${app.mobile.sync.safety-lag-seconds:5}")
+    private long syncSafetyLagSeconds;
+
+    // Reassignments the user did not make leave no tombstone, so clients rebuild their list this often
+    @Value("${app.mobile.sync.full-resync-hours:24}")
+    private long fullResyncHours;
 
     /**
      * Get customers allocated to a user (OPEN only by default)
      * Matches: GET /api/mobile/customers/allocated from Node.js
      */
-    public Page<Customer> getAllocatedCustomers(Long userId, int page, int size, boolean includeClosed) {
+    public Page<CustomerListView> getAllocatedCustomers(Long userId, int page, int size, boolean includeClosed) {
         Pageable pageable = PageRequest.of(page - 1, size); // Convert to 0-based indexing
         
         if (includeClosed) {
@@ -44,6 +76,55 @@ public class CustomerService {
         }
     }
 
+    /**
+     * Get customers allocated to a user using keyset (cursor) pagination
+     * An empty cursor starts from the top of the list
+     */
+    public KeysetPage<CustomerListView> getAllocatedCustomersAfter(Long userId, String cursor, int size, boolean includeClosed) {
+        CursorCodec.Cursor position = decodeCursor(cursor, KEYSET_CEILING, Long.MAX_VALUE);
+        Pageable limit = PageRequest.of(0, size + 1); // One extra row tells us whether there is a next page
+        
+        List<CustomerListView> rows;
+        if (includeClosed) {
+            rows = customerRepository.findAllCustomersAssignedToUserAfter(
+                    userId, position.getSortKey(), position.getId(), limit);
+        } else {
+            rows = customerRepository.findOpenCustomersAssignedToUserAfter(
+                    userId, LocalDateTime.now(), position.getSortKey(), position.getId(), limit);
+        }
+        return toKeysetPage(rows, size, this::queueSortKey);
+    }
+
+    /**
+     * Get an allocated-customers page together with its total and the user's status breakdown
+     * in one database round trip (replaces page query + COUNT + getStatusBreakdownForUser)
+     */
+    @Transactional(readOnly = true)
+    public CustomerJdbcRepository.AllocatedPageResult getAllocatedCustomersWithBreakdown(Long userId, int page,
+                                                                                         int size, boolean includeClosed) {
+        return customerJdbcRepository.findAllocatedPageWithBreakdown(
+                userId, includeClosed, LocalDateTime.now(), page - 1, size);
+    }
+
+    /**
+     * Get customers allocated to a user as a Slice (has_next only, no COUNT query)
+     */
+    public Slice<CustomerListView> getAllocatedCustomersSlice(Long userId, int page, int size, boolean includeClosed) {
+        Pageable pageable = PageRequest.of(page - 1, size);
+        if (includeClosed) {
+            return customerRepository.findAllCustomersSliceAssignedToUser(userId, pageable);
+        }
+        return customerRepository.findOpenCustomersSliceAssignedToUser(userId, LocalDateTime.now(), pageable);
+    }
+
+    /**
+     * Get count of allocated customers from the per-user count cache
+     */
+    public CustomerCountCache.CountSnapshot getCachedAllocatedCustomersCount(Long userId, boolean includeClosed) {
+        return countCache.get(userId, includeClosed ? "allocated_all" : "allocated_open",
+                () -> getAllocatedCustomersCount(userId, includeClosed));
+    }
+
     /**
      * Get count of allocated customers
      */
@@ -68,12 +149,37 @@ public class CustomerService {
      * Get submitted/closed customers for a user
      * These are customers that were previously assigned to the user but are now closed
      */
-    public Page<Customer> getSubmittedCustomers(Long userId, int page, int size) {
+    public Page<CustomerListView> getSubmittedCustomers(Long userId, int page, int size) {
         Pageable pageable = PageRequest.of(page - 1, size);
         log.info("📋 Fetching submitted customers for user: {}", userId);
         return customerRepository.findSubmittedCustomersForUser(userId, pageable);
     }
     
+    /**
+     * Get submitted customers for a user using keyset (cursor) pagination
+     */
+    public KeysetPage<CustomerListView> getSubmittedCustomersAfter(Long userId, String cursor, int size) {
+        CursorCodec.Cursor position = decodeCursor(cursor, KEYSET_CEILING, Long.MAX_VALUE);
+        List<CustomerListView> rows = customerRepository.findSubmittedCustomersForUserAfter(
+                userId, KEYSET_FLOOR, position.getSortKey(), position.getId(), PageRequest.of(0, size + 1));
+        return toKeysetPage(rows, size,
+                customer -> customer.getLastStatusUpdated() != null ? customer.getLastStatusUpdated() : KEYSET_FLOOR);
+    }
+    
+    /**
+     * Get submitted customers for a user as a Slice (has_next only, no COUNT query)
+     */
+    public Slice<CustomerListView> getSubmittedCustomersSlice(Long userId, int page, int size) {
+        return customerRepository.findSubmittedCustomersSliceForUser(userId, PageRequest.of(page - 1, size));
+    }
+
+    /**
+     * Get count of submitted customers from the per-user count cache
+     */
+    public CustomerCountCache.CountSnapshot getCachedSubmittedCustomersCount(Long userId) {
+        return countCache.get(userId, "submitted", () -> customerRepository.countClosedCustomersForUser(userId));
+    }
+    
     /**
      * Get status breakdown for submitted customers for a user
      */
@@ -85,7 +191,7 @@ public class CustomerService {
      * Get customers due for follow-up
      * Matches: GET /api/mobile/customers/follow-up from Node.js
      */
-    public Page<Customer> getFollowUpCustomers(Long userId, int page, int size, int daysAhead) {
+    public Page<CustomerListView> getFollowUpCustomers(Long userId, int page, int size, int daysAhead) {
         Pageable pageable = PageRequest.of(page - 1, size);
         LocalDateTime futureDate = LocalDateTime.now().plusDays(daysAhead);
         
@@ -93,6 +199,75 @@ public class CustomerService {
         return customerRepository.findFollowUpCustomersForUser(userId, futureDate, pageable);
     }
 
+    /**
+     * Get customers due for follow-up using keyset (cursor) pagination
+     */
+    public KeysetPage<CustomerListView> getFollowUpCustomersAfter(Long userId, String cursor, int size, int daysAhead) {
+        CursorCodec.Cursor position = decodeCursor(cursor, KEYSET_FLOOR, 0L);
+        LocalDateTime futureDate = LocalDateTime.now().plusDays(daysAhead);
+        List<CustomerListView> rows = customerRepository.findFollowUpCustomersForUserAfter(
+                userId, futureDate, position.getSortKey(), position.getId(), PageRequest.of(0, size + 1));
+        return toKeysetPage(rows, size, CustomerListView::getReminderDate);
+    }
+
+    /**
+     * Get customers due for follow-up as a Slice (has_next only, no COUNT query)
+     */
+    public Slice<CustomerListView> getFollowUpCustomersSlice(Long userId, int page, int size, int daysAhead) {
+        LocalDateTime futureDate = LocalDateTime.now().plusDays(daysAhead);
+        return customerRepository.findFollowUpCustomersSliceForUser(userId, futureDate, PageRequest.of(page - 1, size));
+    }
+
+    /**
+     * Get count of follow-up customers from the per-user count cache
+     */
+    public CustomerCountCache.CountSnapshot getCachedFollowUpCustomersCount(Long userId, int daysAhead) {
+        return countCache.get(userId, "follow_up_" + daysAhead, () -> getFollowUpCustomersCount(userId, daysAhead));
+    }
+
+    /**
+     * Get customers changed since the client's sync watermark, oldest change first
+     * An empty watermark, or one whose full sync is older than full-resync-hours, starts a full sync of the
+     * user's currently assigned customers and flags the page as a reset. Customers moved to another agent by
+     * anyone but the user produce no tombstone, so the full sync is what drops them from the client.
+     * The returned page always carries the watermark for the next poll.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<CustomerListView> getCustomerChangesSince(Long userId, String since, int size) {
+        LocalDateTime now = LocalDateTime.now();
+        CursorCodec.Cursor position = decodeCursor(since, KEYSET_FLOOR, 0L);
+        LocalDateTime fullSyncAt = position.getFullSyncAt();
+        boolean initialSync = since == null || since.trim().isEmpty()
+                || fullSyncAt == null || fullSyncAt.isBefore(now.minusHours(fullResyncHours));
+        if (initialSync) {
+            position = new CursorCodec.Cursor(KEYSET_FLOOR, 0L);
+            fullSyncAt = now;
+        }
+        LocalDateTime upperBound = now.minusSeconds(syncSafetyLagSeconds);
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        List<CustomerListView> rows = initialSync
+                ? customerRepository.findAssignedCustomersChangedAfter(
+                        userId, KEYSET_FLOOR, position.getSortKey(), position.getId(), upperBound, limit)
+                : customerRepository.findCustomerChangesForUserAfter(
+                        userId, KEYSET_FLOOR, position.getSortKey(), position.getId(), upperBound, limit);
+
+        boolean hasNext = size > 0 && rows.size() > size;
+        List<CustomerListView> content = hasNext ? rows.subList(0, size) : rows;
+        String nextSince;
+        if (!content.isEmpty()) {
+            CustomerListView last = content.get(content.size() - 1);
+            nextSince = CursorCodec.encode(syncKey(last), last.getId(), fullSyncAt);
+        } else {
+            // Nothing new - the client keeps its position
+            nextSince = CursorCodec.encode(position.getSortKey(), position.getId(), fullSyncAt);
+        }
+
+        log.info("🔄 Delta sync for user {}: {} rows since {} (full: {}, more: {})",
+                userId, content.size(), position.getSortKey(), initialSync, hasNext);
+        return new KeysetPage<>(content, size, hasNext, nextSince, initialSync);
+    }
+
     /**
      * Count follow-up customers
      */
@@ -129,6 +304,7 @@ public class CustomerService {
                 customerId, status.getValue(), isClosed, userId);
 
         LocalDateTime currentTime = LocalDateTime.now();
+        List<CustomerSnapshot> before = customerJdbcRepository.lockSnapshots(List.of(customerId));
         int updatedRows = customerRepository.updateCustomerStatusAndUnassignIfClosed(
                 customerId, status.getValue(), isClosed, notes, reminderDate, userId, currentTime
         );
@@ -136,6 +312,9 @@ public class CustomerService {
         boolean success = updatedRows > 0;
         
         if (success) {
+            eventPublisher.publishEvent(CustomerChangeEvent.forUsers(
+                    CustomerChangeEvent.ChangeType.STATUS_UPDATED, List.of(customerId), userId)
+                    .withRowChanges(statusRowChanges(before, userId, status, isClosed, currentTime)));
             if (isClosed) {
                 log.info("🔒 Customer {} marked as CLOSED with status: {} and UNASSIGNED from user", 
                         customerId, status.getValue());
@@ -166,6 +345,7 @@ public class CustomerService {
         boolean isClosed = true; // Force closure to unassign
         LocalDateTime currentTime = LocalDateTime.now();
         
+        List<CustomerSnapshot> before = customerJdbcRepository.lockSnapshots(List.of(customerId));
         int updatedRows = customerRepository.updateCustomerStatusAndUnassignIfClosed(
                 customerId, status.getValue(), isClosed, notes, reminderDate, userId, currentTime
         );
@@ -173,6 +353,9 @@ public class CustomerService {
         boolean success = updatedRows > 0;
         
         if (success) {
+            eventPublisher.publishEvent(CustomerChangeEvent.forUsers(
+                    CustomerChangeEvent.ChangeType.SUBMITTED, List.of(customerId), userId)
+                    .withRowChanges(statusRowChanges(before, userId, status, isClosed, currentTime)));
             log.info("✅ Individual customer submission successful - Customer {} updated to '{}' and moved to submissions", 
                     customerId, status.getValue());
         } else {
@@ -183,6 +366,95 @@ public class CustomerService {
         return success;
     }
 
+    /**
+     * Apply a queue of status updates from one user in a single transaction
+     * Items are validated with the same rules as updateCustomerStatus and the valid ones are written
+     * as one JDBC batch in request order, so a later update of the same customer sees the earlier one
+     */
+    public List<CustomerDTO.BatchStatusUpdateResponse.ItemResult> updateCustomerStatusBatch(
+            Long userId, List<CustomerDTO.BatchStatusUpdateItem> updates) {
+        
+        LocalDateTime currentTime = LocalDateTime.now();
+        List<CustomerDTO.BatchStatusUpdateResponse.ItemResult> results = new ArrayList<>(updates.size());
+        List<CustomerJdbcRepository.StatusUpdateRow> rows = new ArrayList<>();
+        List<CustomerDTO.BatchStatusUpdateResponse.ItemResult> rowResults = new ArrayList<>();
+        
+        for (int i = 0; i < updates.size(); i++) {
+            CustomerDTO.BatchStatusUpdateItem item = updates.get(i);
+            CustomerDTO.BatchStatusUpdateResponse.ItemResult result = new CustomerDTO.BatchStatusUpdateResponse.ItemResult();
+            result.setIndex(i);
+            results.add(result);
+            
+            if (item == null) {
+                result.setError("Update item is required");
+                continue;
+            }
+            result.setCustomerId(item.getCustomerId());
+            result.setStatus(item.getStatus());
+            
+            String error = item.getCustomerId() == null ? "Customer ID is required"
+                    : validateStatusUpdate(item.getStatus(), item.getReminderDate(), currentTime);
+            if (error != null) {
+                result.setError(error);
+                continue;
+            }
+            
+            boolean isClosed = isClosedStatus(Customer.CustomerStatus.fromValue(item.getStatus()));
+            result.setIsClosed(isClosed);
+            rows.add(new CustomerJdbcRepository.StatusUpdateRow(
+                    item.getCustomerId(), item.getStatus(), isClosed, item.getNotes(), item.getReminderDate()));
+            rowResults.add(result);
+        }
+        
+        if (rows.isEmpty()) {
+            return results;
+        }
+        
+        Map<Long, CustomerSnapshot> current = new HashMap<>();
+        List<Long> customerIds = rows.stream().map(CustomerJdbcRepository.StatusUpdateRow::getCustomerId).distinct().toList();
+        for (CustomerSnapshot snapshot : customerJdbcRepository.lockSnapshots(customerIds)) {
+            current.put(snapshot.getCustomerId(), snapshot);
+        }
+        
+        int[] updateCounts = customerJdbcRepository.batchUpdateStatus(userId, rows, currentTime);
+        
+        List<CustomerChangeEvent.RowChange> changes = new ArrayList<>();
+        Set<Long> updatedIds = new LinkedHashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            CustomerJdbcRepository.StatusUpdateRow row = rows.get(i);
+            CustomerSnapshot before = current.get(row.getCustomerId());
+            // Rows are locked, so the snapshot decides for drivers that do not report per-statement counts
+            boolean applied = updateCounts[i] == Statement.SUCCESS_NO_INFO
+                    ? before != null && userId.equals(before.getAssignedTo())
+                    : updateCounts[i] > 0;
+            
+            CustomerDTO.BatchStatusUpdateResponse.ItemResult result = rowResults.get(i);
+            result.setSuccess(applied);
+            if (!applied) {
+                result.setError("Customer not found or not assigned to this user");
+                continue;
+            }
+            
+            updatedIds.add(row.getCustomerId());
+            if (before != null) {
+                CustomerSnapshot after = before.afterStatusUpdate(userId, row.getStatus(), row.isClosed(), currentTime);
+                changes.add(new CustomerChangeEvent.RowChange(before, after));
+                current.put(row.getCustomerId(), after);
+            }
+        }
+        
+        if (!updatedIds.isEmpty()) {
+            eventPublisher.publishEvent(CustomerChangeEvent.forUsers(
+                    CustomerChangeEvent.ChangeType.STATUS_UPDATED, new ArrayList<>(updatedIds), userId)
+                    .withRowChanges(changes));
+        }
+        
+        log.info("📦 Batch status update by user {}: {} of {} updates applied", userId,
+                results.stream().filter(CustomerDTO.BatchStatusUpdateResponse.ItemResult::isSuccess).count(), updates.size());
+        
+        return results;
+    }
+
     /**
      * Get customer by ID if assigned to user (for security validation)
      */
@@ -199,10 +471,44 @@ public class CustomerService {
 
     /**
      * Assign customers to a user
+     * The UPDATE runs in chunks so a long id list stays under SQL Server's parameter limit.
+     * Bulk distribution across agents lives in BulkAssignmentService.
      */
     public int assignCustomersToUser(List<Long> customerIds, Long userId, Long assignedBy) {
         LocalDateTime assignedAt = LocalDateTime.now();
-        return customerRepository.assignCustomersToUser(customerIds, userId, assignedAt);
+        List<CustomerSnapshot> before = customerJdbcRepository.lockSnapshots(customerIds);
+        int assigned = 0;
+        for (int from = 0; from < customerIds.size(); from += CustomerJdbcRepository.IN_LIST_CHUNK_SIZE) {
+            List<Long> chunk = customerIds.subList(from,
+                    Math.min(from + CustomerJdbcRepository.IN_LIST_CHUNK_SIZE, customerIds.size()));
+            assigned += customerRepository.assignCustomersToUser(chunk, userId, assignedAt);
+        }
+        if (assigned > 0) {
+            // Only unassigned rows are taken, so no previous assignee loses a customer
+            List<CustomerChangeEvent.RowChange> changes = new ArrayList<>();
+            for (CustomerSnapshot snapshot : before) {
+                if (snapshot.getAssignedTo() == null) {
+                    changes.add(new CustomerChangeEvent.RowChange(snapshot, snapshot.afterAssignment(userId)));
+                }
+            }
+            eventPublisher.publishEvent(CustomerChangeEvent.forUsers(
+                    CustomerChangeEvent.ChangeType.ASSIGNED, customerIds, userId).withRowChanges(changes));
+        }
+        return assigned;
+    }
+
+    // The rows as updateCustomerStatusAndUnassignIfClosed leaves them; it only touches rows assigned to the user
+    private List<CustomerChangeEvent.RowChange> statusRowChanges(List<CustomerSnapshot> before, Long userId,
+                                                                 Customer.CustomerStatus status, boolean isClosed,
+                                                                 LocalDateTime currentTime) {
+        List<CustomerChangeEvent.RowChange> changes = new ArrayList<>();
+        for (CustomerSnapshot snapshot : before) {
+            if (userId.equals(snapshot.getAssignedTo())) {
+                changes.add(new CustomerChangeEvent.RowChange(snapshot,
+                        snapshot.afterStatusUpdate(userId, status.getValue(), isClosed, currentTime)));
+            }
+        }
+        return changes;
     }
 
     /**
@@ -268,28 +574,6 @@ public class CustomerService {
         return customerRepository.findUnassignedCustomersByState(state, pageable);
     }
 
-    /**
-     * Search customers by various criteria
-     */
-    public List<Customer> searchCustomers(String searchTerm) {
-        if (searchTerm == null || searchTerm.trim().isEmpty()) {
-            return List.of();
-        }
-
-        String trimmedTerm = searchTerm.trim();
-        
-        // Try mobile number search first
-        if (trimmedTerm.matches("\\d+")) {
-            List<Customer> byMobile = customerRepository.findByMobileNumberContaining(trimmedTerm);
-            if (!byMobile.isEmpty()) {
-                return byMobile;
-            }
-        }
-        
-        // Try name search
-        return customerRepository.findByNameContaining(trimmedTerm);
-    }
-
     /**
      * Get customer statistics
      */
@@ -325,6 +609,46 @@ public class CustomerService {
         return customerRepository.findCustomersUpdatedBetween(fromDate, toDate, pageable);
     }
 
+    /**
+     * Decode a client cursor, or start from the given sentinel position when none was sent
+     */
+    private CursorCodec.Cursor decodeCursor(String cursor, LocalDateTime startKey, Long startId) {
+        if (cursor == null || cursor.trim().isEmpty()) {
+            return new CursorCodec.Cursor(startKey, startId);
+        }
+        return CursorCodec.decode(cursor);
+    }
+
+    /**
+     * Trim the look-ahead row and build the cursor from the last row on the page
+     */
+    private KeysetPage<CustomerListView> toKeysetPage(List<CustomerListView> rows, int size,
+                                                      Function<CustomerListView, LocalDateTime> sortKey) {
+        boolean hasNext = size > 0 && rows.size() > size;
+        List<CustomerListView> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            CustomerListView last = content.get(content.size() - 1);
+            nextCursor = CursorCodec.encode(sortKey.apply(last), last.getId());
+        }
+        return new KeysetPage<>(content, size, hasNext, nextCursor);
+    }
+
+    /**
+     * Java mirror of CustomerRepository.SYNC_KEY
+     */
+    private LocalDateTime syncKey(CustomerListView customer) {
+        return customer.getUpdatedAt() != null ? customer.getUpdatedAt() : KEYSET_FLOOR;
+    }
+
+    /**
+     * Cursor key matching the computed queue_sort_at of the row
+     */
+    private LocalDateTime queueSortKey(CustomerListView customer) {
+        return Customer.queueSortKey(customer.getCustomerStatusString(), customer.getReminderDate(),
+                customer.getLastStatusUpdated());
+    }
+
     /**
      * Validate status - matches Node.js validation
      */
@@ -337,6 +661,23 @@ public class CustomerService {
                status == Customer.CustomerStatus.FOLLOW_UP;
     }
 
+    /**
+     * Same checks as updateCustomerStatus - returns the error message, or null if the update is acceptable
+     */
+    private String validateStatusUpdate(String statusValue, LocalDateTime reminderDate, LocalDateTime now) {
+        if (statusValue == null || statusValue.isBlank()) {
+            return "Status is required";
+        }
+        Customer.CustomerStatus status = Customer.CustomerStatus.fromValue(statusValue);
+        if (!status.getValue().equals(statusValue) || !isValidStatus(status)) {
+            return "Invalid status. Must be one of: active, renewed, not_interested, not_reachable, follow_up";
+        }
+        if (status == Customer.CustomerStatus.FOLLOW_UP && reminderDate != null && !reminderDate.isAfter(now)) {
+            return "Reminder date must be a valid future date for follow-up status";
+        }
+        return null;
+    }
+
     /**
      * Check if status represents a closed customer - matches Node.js logic
      */
@@ -362,98 +703,9 @@ public class CustomerService {
     
     /**
      * Get user analytics data for mobile app
-     * Returns summary statistics and status breakdown
+     * Returns summary statistics and status breakdown, served from the incrementally maintained UserAnalyticsStore
      */
     public CustomerDTO.AnalyticsData getUserAnalytics(Long userId) {
-        CustomerDTO.AnalyticsData analyticsData = new CustomerDTO.AnalyticsData();
-        
-        // Get summary statistics
-        CustomerDTO.AnalyticsData.AnalyticsSummary summary = new CustomerDTO.AnalyticsData.AnalyticsSummary();
-        
-        // Calculate time-based counts using India Standard Time (IST) 
-        // but convert to UTC for database comparison since database stores UTC timestamps
-        java.time.ZoneId istZone = java.time.ZoneId.of("Asia/Kolkata");
-        java.time.ZoneId utcZone = java.time.ZoneId.of("UTC");
-        
-        // Calculate IST times first
-        LocalDateTime currentIstTime = LocalDateTime.now(istZone);
-        LocalDateTime todayIst = currentIstTime.withHour(0).withMinute(0).withSecond(0).withNano(0);
-        LocalDateTime weekStartIst = todayIst.minusDays(7);
-        LocalDateTime monthStartIst = todayIst.minusDays(30);
-        
-        // Convert IST times to UTC for database comparison
-        LocalDateTime today = todayIst.atZone(istZone).withZoneSameInstant(utcZone).toLocalDateTime();
-        LocalDateTime weekStart = weekStartIst.atZone(istZone).withZoneSameInstant(utcZone).toLocalDateTime();
-        LocalDateTime monthStart = monthStartIst.atZone(istZone).withZoneSameInstant(utcZone).toLocalDateTime();
-        
-        summary.setTodayCount((int) customerRepository.countCustomersUpdatedByUserSince(userId, today));
-        summary.setWeekCount((int) customerRepository.countCustomersUpdatedByUserSince(userId, weekStart));
-        summary.setMonthCount((int) customerRepository.countCustomersUpdatedByUserSince(userId, monthStart));
-        
-        // Get total assigned and completed counts
-        // Total assigned = currently assigned + previously completed
-        int currentlyAssigned = (int) customerRepository.countByAssignedTo(userId);
-        int completedCount = (int) customerRepository.countClosedCustomersForUser(userId);
-        int totalEverAssigned = currentlyAssigned + completedCount;
-        
-        summary.setTotalAssigned(totalEverAssigned);
-        summary.setCompletedCount(completedCount);
-        
-        
-        // Calculate completion rate
-        double completionRate = summary.getTotalAssigned() > 0 ? 
-            (double) summary.getCompletedCount() / summary.getTotalAssigned() * 100 : 0;
-        summary.setCompletionRate(completionRate);
-        
-        analyticsData.setSummary(summary);
-        
-        // Get status breakdown
-        List<Object[]> statusBreakdownData = getStatusBreakdownForUser(userId);
-        CustomerDTO.AnalyticsData.StatusBreakdown breakdown = new CustomerDTO.AnalyticsData.StatusBreakdown();
-        
-        // Process status breakdown data
-        for (Object[] row : statusBreakdownData) {
-            String status = (String) row[0];
-            Boolean closed = (Boolean) row[1];
-            Long count = ((Number) row[2]).longValue();
-            
-            if (status != null) {
-                switch (status.toLowerCase()) {
-                    case "active":
-                        breakdown.setActive(count.intValue());
-                        break;
-                    case "renewed":
-                        breakdown.setRenewed(count.intValue());
-                        break;
-                    case "not_interested":
-                        breakdown.setNotInterested(count.intValue());
-                        break;
-                    case "not_reachable":
-                        breakdown.setNotReachable(count.intValue());
-                        break;
-                    case "follow_up":
-                        breakdown.setFollowUp(count.intValue());
-                        break;
-                }
-            }
-        }
-        
-        analyticsData.setStatusBreakdown(breakdown);
-        
-        // Get daily activity for the last 7 days
-        java.util.List<CustomerDTO.AnalyticsData.DailyActivity> dailyActivity = new java.util.ArrayList<>();
-        List<Object[]> dailyStats = customerRepository.getDailyCustomerUpdateStatsForUser(userId, weekStart);
-        
-        for (Object[] row : dailyStats) {
-            CustomerDTO.AnalyticsData.DailyActivity activity = new CustomerDTO.AnalyticsData.DailyActivity();
-            activity.setDate(row[0].toString());
-            activity.setCount(((Number) row[1]).intValue());
-            dailyActivity.add(activity);
-        }
-        
-        analyticsData.setDailyActivity(dailyActivity);
-        
-        
-        return analyticsData;
+        return analyticsStore.getAnalytics(userId);
     }
 }
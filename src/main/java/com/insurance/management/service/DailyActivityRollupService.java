@@ -0,0 +1,165 @@
+package com.insurance.management.service;
+
+import com.insurance.management.event.CustomerChangeEvent;
+import com.insurance.management.event.CustomerSnapshot;
+import com.insurance.management.repository.DailyActivityRollupJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Daily Activity Rollup Service - Per-day status change counts by state, agent and status
+ * Every status change bumps its rollup row inside the writing transaction, so the daily trend
+ * keeps history that the customers table overwrites and reads one small row group per day.
+ */
+@Service
+@Slf4j
+public class DailyActivityRollupService {
+
+    private static final ZoneId IST_ZONE = ZoneId.of("Asia/Kolkata");
+    private static final ZoneId UTC_ZONE = ZoneId.of("UTC");
+    private static final int MAX_DAYS = 366;
+
+    private final DailyActivityRollupJdbcRepository rollupJdbcRepository;
+    private final boolean enabled;
+
+    // Set once the table has been found; until then the legacy daily query stays in use
+    private volatile boolean available;
+
+    public DailyActivityRollupService(DailyActivityRollupJdbcRepository rollupJdbcRepository,
+                                      @Value("${app.metrics.rollup.enabled:true}") boolean enabled) {
+        this.rollupJdbcRepository = rollupJdbcRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Check for the rollup table once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkTable() {
+        if (!enabled) {
+            log.info("📊 Daily activity rollup disabled");
+            return;
+        }
+        available = rollupJdbcRepository.tableExists();
+        if (available) {
+            log.info("📊 Daily activity rollup enabled");
+        } else {
+            log.error("❌ daily_activity_rollup table not found - daily metrics fall back to the customers table. " +
+                    "Check that the db/migration scripts have run (mvn -Pmigrate flyway:migrate).");
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Count the status changes of a committing transaction; a failure here rolls the change back
+     * so the rollup never misses or double-counts a change
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onCustomerChangeCommitting(CustomerChangeEvent event) {
+        if (!available || event.getType() == CustomerChangeEvent.ChangeType.ASSIGNED) {
+            return;
+        }
+
+        Map<String, DailyActivityRollupJdbcRepository.RollupDelta> deltas = new LinkedHashMap<>();
+        for (CustomerChangeEvent.RowChange change : event.getRowChanges()) {
+            CustomerSnapshot after = change.getAfter();
+            if (after == null || after.getLastStatusUpdated() == null || after.getStatusUpdatedBy() == null
+                    || after.getStatus() == null) {
+                continue;
+            }
+            if (change.getBefore() != null
+                    && Objects.equals(change.getBefore().getLastStatusUpdated(), after.getLastStatusUpdated())) {
+                continue;
+            }
+
+            LocalDate day = toIstDate(after.getLastStatusUpdated());
+            String state = after.getState() != null ? after.getState().trim() : "";
+            boolean closed = Boolean.TRUE.equals(after.getIsClosed());
+            String key = day + "|" + state + "|" + after.getStatusUpdatedBy() + "|" + after.getStatus() + "|" + closed;
+            DailyActivityRollupJdbcRepository.RollupDelta previous = deltas.get(key);
+            long count = previous != null ? previous.getCount() + 1 : 1;
+            deltas.put(key, new DailyActivityRollupJdbcRepository.RollupDelta(
+                    day, state, after.getStatusUpdatedBy(), after.getStatus(), closed, count));
+        }
+
+        if (!deltas.isEmpty()) {
+            rollupJdbcRepository.mergeCounts(new ArrayList<>(deltas.values()), LocalDateTime.now());
+            log.debug("📊 Rollup updated - {} keys for {} row changes", deltas.size(), event.getRowChanges().size());
+        }
+    }
+
+    /**
+     * Completed (closed) and in-progress (still open) status changes for each of the last N IST days
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getDailyMetrics(String state, int days) {
+        int daysToFetch = Math.max(1, Math.min(days, MAX_DAYS));
+        LocalDate toDate = LocalDate.now(IST_ZONE);
+        LocalDate fromDate = toDate.minusDays(daysToFetch - 1);
+
+        List<DailyActivityRollupJdbcRepository.DailyTotal> rows = rollupJdbcRepository.getDailyTotals(
+                fromDate, toDate, state != null && !state.isBlank() ? state.trim() : null);
+
+        Map<LocalDate, long[]> totalsByDate = new HashMap<>();
+        for (DailyActivityRollupJdbcRepository.DailyTotal row : rows) {
+            totalsByDate.put(row.getActivityDate(), new long[]{row.getCompleted(), row.getInProgress()});
+        }
+
+        List<Map<String, Object>> dailyData = new ArrayList<>(daysToFetch);
+        for (LocalDate date = fromDate; !date.isAfter(toDate); date = date.plusDays(1)) {
+            long[] totals = totalsByDate.getOrDefault(date, new long[2]);
+            Map<String, Object> dayData = new HashMap<>();
+            dayData.put("date", date.toString());
+            dayData.put("completed", totals[0]);
+            dayData.put("in_progress", totals[1]);
+            dailyData.add(dayData);
+        }
+        return dailyData;
+    }
+
+    /**
+     * Seed the last N IST days that have no rollup rows yet from the customers table
+     */
+    @Transactional
+    public Map<String, Object> backfill(int days) {
+        if (!available) {
+            throw new IllegalStateException("daily_activity_rollup table not available");
+        }
+        int daysToFill = Math.max(1, Math.min(days, MAX_DAYS));
+        LocalDateTime sinceUtc = LocalDate.now(IST_ZONE).minusDays(daysToFill - 1)
+                .atStartOfDay(IST_ZONE).withZoneSameInstant(UTC_ZONE).toLocalDateTime();
+
+        long startTime = System.currentTimeMillis();
+        int inserted = rollupJdbcRepository.backfillFromCustomers(sinceUtc, LocalDateTime.now());
+        log.info("📊 Rollup backfill inserted {} rows for the last {} days in {}ms",
+                inserted, daysToFill, System.currentTimeMillis() - startTime);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("days", daysToFill);
+        result.put("rows_inserted", inserted);
+        return result;
+    }
+
+    private static LocalDate toIstDate(LocalDateTime utc) {
+        return utc.atZone(UTC_ZONE).withZoneSameInstant(IST_ZONE).toLocalDate();
+    }
+}
@@ -0,0 +1,26 @@
+package com.insurance.management.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Keyset (cursor) page - one page of rows plus the opaque cursor for the next page
+ * No total count is computed, so fetching page N costs the same as page 1
+ */
+@Data
+@AllArgsConstructor
+public class KeysetPage<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    // Delta sync only: the client must replace its local copy with this page and the ones that follow
+    private boolean reset;
+
+    public KeysetPage(List<T> content, int size, boolean hasNext, String nextCursor) {
+        this(content, size, hasNext, nextCursor, false);
+    }
+}
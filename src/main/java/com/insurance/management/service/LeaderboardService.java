@@ -0,0 +1,113 @@
+package com.insurance.management.service;
+
+import com.insurance.management.repository.CustomerJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/**
+ * Leaderboard Service - Top agents by assigned, completed or today's updates
+ * All counts come from one grouped query; only the top K rows are kept while ranking
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class LeaderboardService {
+
+    private static final ZoneId IST_ZONE = ZoneId.of("Asia/Kolkata");
+    private static final ZoneId UTC_ZONE = ZoneId.of("UTC");
+    private static final int MAX_LIMIT = 100;
+
+    private final CustomerJdbcRepository customerJdbcRepository;
+
+    public enum SortBy {
+        ASSIGNED, COMPLETED, TODAY;
+
+        public static SortBy fromValue(String value) {
+            if (value == null || value.isBlank()) {
+                return ASSIGNED;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid sort_by: " + value + ". Must be one of: assigned, completed, today");
+            }
+        }
+    }
+
+    /**
+     * Top agents, optionally limited to one state (by the agent's location state)
+     */
+    public List<Map<String, Object>> getTopUsers(String state, int limit, SortBy sortBy) {
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        // "Today" starts at IST midnight; the database stores UTC
+        LocalDateTime todayStart = LocalDate.now(IST_ZONE).atStartOfDay(IST_ZONE)
+                .withZoneSameInstant(UTC_ZONE).toLocalDateTime();
+
+        List<CustomerJdbcRepository.LeaderboardRow> rows = customerJdbcRepository.findLeaderboardRows(
+                todayStart, state != null && !state.isBlank() ? state.trim() : null);
+
+        // Min-heap of the best K seen so far: the weakest entry is evicted first
+        Comparator<CustomerJdbcRepository.LeaderboardRow> ranking = ranking(sortBy);
+        PriorityQueue<CustomerJdbcRepository.LeaderboardRow> top = new PriorityQueue<>(k + 1, ranking);
+        for (CustomerJdbcRepository.LeaderboardRow row : rows) {
+            top.offer(row);
+            if (top.size() > k) {
+                top.poll();
+            }
+        }
+
+        List<CustomerJdbcRepository.LeaderboardRow> ranked = new ArrayList<>(top);
+        ranked.sort(ranking.reversed());
+
+        List<Map<String, Object>> leaderboard = new ArrayList<>(ranked.size());
+        for (CustomerJdbcRepository.LeaderboardRow row : ranked) {
+            leaderboard.add(toResponse(row));
+        }
+
+        log.info("🏆 Leaderboard built - {} of {} agents (state: {}, sort: {})",
+                leaderboard.size(), rows.size(), state != null ? state : "ALL", sortBy);
+        return leaderboard;
+    }
+
+    // Ascending = worse first; ties go to the lower username so the order is stable
+    private static Comparator<CustomerJdbcRepository.LeaderboardRow> ranking(SortBy sortBy) {
+        Comparator<CustomerJdbcRepository.LeaderboardRow> primary = switch (sortBy) {
+            case COMPLETED -> Comparator.comparingLong(CustomerJdbcRepository.LeaderboardRow::getCompletedCount);
+            case TODAY -> Comparator.comparingLong(CustomerJdbcRepository.LeaderboardRow::getTodayUpdatedCount);
+            default -> Comparator.comparingLong(CustomerJdbcRepository.LeaderboardRow::getAssignedCount);
+        };
+        return primary
+                .thenComparingLong(CustomerJdbcRepository.LeaderboardRow::getCompletedCount)
+                .thenComparing(CustomerJdbcRepository.LeaderboardRow::getUsername, Comparator.reverseOrder());
+    }
+
+    private static Map<String, Object> toResponse(CustomerJdbcRepository.LeaderboardRow row) {
+        Map<String, Object> userData = new HashMap<>();
+        userData.put("userId", row.getUserId());
+        userData.put("username", row.getUsername());
+        String fullName = String.join(" ",
+                Optional.ofNullable(row.getFirstName()).orElse(""),
+                Optional.ofNullable(row.getLastName()).orElse("")).trim();
+        userData.put("fullName", fullName.isEmpty() ? row.getUsername() : fullName);
+        userData.put("locationState", row.getLocationState() != null ? row.getLocationState() : "");
+        userData.put("assignedCount", row.getAssignedCount());
+        userData.put("completedCount", row.getCompletedCount());
+        userData.put("todayUpdatedCount", row.getTodayUpdatedCount());
+        return userData;
+    }
+}
@@ -0,0 +1,378 @@
+package com.insurance.management.service;
+
+import com.insurance.management.event.CustomerChangeEvent;
+import com.insurance.management.event.CustomerSnapshot;
+import com.insurance.management.repository.CustomerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics Snapshot Service - In-memory admin overview, rebuilt on a schedule and patched on change
+ * A full rebuild runs the overview queries once; committed customer changes are then applied as
+ * deltas to the status breakdown, the per-state counts and the top users already on the board.
+ * Responses carry generated-at and staleness metadata so the dashboard can show how fresh they are.
+ * Rebuild queries run outside the snapshot lock; changes committed meanwhile are buffered and replayed
+ * onto the new snapshot when it is swapped in, so writers never wait for a rebuild.
+ */
+@Service
+@Slf4j
+public class MetricsSnapshotService {
+
+    private static final ZoneId IST_ZONE = ZoneId.of("Asia/Kolkata");
+    private static final ZoneId UTC_ZONE = ZoneId.of("UTC");
+    private static final int TOP_USERS = 10;
+
+    // Parts of the snapshot that deltas cannot maintain exactly; they are exact again after the next rebuild
+    private static final List<String> APPROXIMATE_FIELDS = List.of("statesSummary.activeUsers", "topUsers.membership");
+
+    // Beyond this many changes during one rebuild, stop buffering and rebuild again instead
+    private static final int MAX_BUFFERED_CHANGES = 50000;
+
+    private final MetricsService metricsService;
+    private final LeaderboardService leaderboardService;
+    private final CustomerRepository customerRepository;
+    private final boolean enabled;
+    private final long refreshIntervalMillis;
+    private final long minRebuildIntervalMillis;
+
+    private final Object lock = new Object();
+    private Snapshot snapshot;          // guarded by lock
+    private boolean pendingRebuild;     // guarded by lock
+    // Changes committed while a rebuild runs, replayed onto it; null when no rebuild is running
+    private List<CustomerChangeEvent.RowChange> bufferedChanges;   // guarded by lock
+    private boolean bufferIncomplete;   // guarded by lock
+
+    // Held for a whole rebuild so only one runs at a time; never held together with lock while querying
+    private final Object rebuildMonitor = new Object();
+
+    // Counts committed changes so a rebuild can tell whether it overlapped one
+    private final AtomicLong changeSequence = new AtomicLong(0);
+
+    // Bumped whenever the served overview may have changed; lets live subscribers skip idle ticks
+    private final AtomicLong version = new AtomicLong(0);
+
+    private final AtomicLong rebuilds = new AtomicLong(0);
+    private final AtomicLong served = new AtomicLong(0);
+    private final AtomicLong deltasApplied = new AtomicLong(0);
+
+    public MetricsSnapshotService(MetricsService metricsService,
+                                  LeaderboardService leaderboardService,
+                                  CustomerRepository customerRepository,
+                                  @Value("${app.metrics.snapshot.enabled:true}") boolean enabled,
+                                  @Value("${app.metrics.snapshot.refresh-interval-ms:300000}") long refreshIntervalMillis,
+                                  @Value("${app.metrics.snapshot.min-rebuild-interval-ms:30000}") long minRebuildIntervalMillis) {
+        this.metricsService = metricsService;
+        this.leaderboardService = leaderboardService;
+        this.customerRepository = customerRepository;
+        this.enabled = enabled;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.minRebuildIntervalMillis = minRebuildIntervalMillis;
+        log.info("📸 Metrics snapshot service initialized - enabled: {}, refresh every {}s",
+                enabled, refreshIntervalMillis / 1000);
+    }
+
+    /**
+     * Overview metrics served from the snapshot (or computed directly when snapshots are disabled)
+     */
+    public Map<String, Object> getOverview(String from, String to, boolean forceRefresh) {
+        if (!enabled) {
+            return metricsService.getOverviewMetrics(from, to);
+        }
+
+        long rebuildsSeen = rebuilds.get();
+        synchronized (lock) {
+            if (snapshot != null && !forceRefresh && !needsRebuild(snapshot)) {
+                served.incrementAndGet();
+                return snapshot.toOverview(from, to, pendingRebuild, refreshIntervalMillis);
+            }
+        }
+
+        rebuild(rebuildsSeen);
+        synchronized (lock) {
+            served.incrementAndGet();
+            return snapshot.toOverview(from, to, pendingRebuild, refreshIntervalMillis);
+        }
+    }
+
+    /**
+     * Rebuild the snapshot from the database - every 5 minutes by default, once it has been requested
+     */
+    @Scheduled(fixedDelayString = "${app.metrics.snapshot.refresh-interval-ms:300000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        boolean built;
+        synchronized (lock) {
+            built = snapshot != null;
+        }
+        if (built) {
+            rebuild(rebuilds.get());
+        }
+    }
+
+    /**
+     * Apply committed customer changes to the snapshot
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCustomerChange(CustomerChangeEvent event) {
+        changeSequence.incrementAndGet();
+        synchronized (lock) {
+            if (bufferedChanges != null) {
+                if (event.getRowChanges().isEmpty()
+                        || bufferedChanges.size() + event.getRowChanges().size() > MAX_BUFFERED_CHANGES) {
+                    bufferIncomplete = true;
+                } else {
+                    bufferedChanges.addAll(event.getRowChanges());
+                }
+            }
+            if (snapshot == null) {
+                version.incrementAndGet();
+                return;
+            }
+            if (event.getRowChanges().isEmpty()) {
+                // Nothing to apply - only a rebuild can pick this change up
+                pendingRebuild = true;
+                version.incrementAndGet();
+                return;
+            }
+            snapshot.applyAll(event.getRowChanges());
+            deltasApplied.addAndGet(event.getRowChanges().size());
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Current overview version - changes after every applied delta or rebuild
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Get snapshot statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("rebuilds", rebuilds.get());
+        stats.put("served", served.get());
+        stats.put("deltas_applied", deltasApplied.get());
+        synchronized (lock) {
+            stats.put("generated_at", snapshot != null ? snapshot.generatedAt : null);
+            stats.put("pending_rebuild", pendingRebuild);
+        }
+        return stats;
+    }
+
+    private boolean needsRebuild(Snapshot current) {
+        // "Today" counts on the board roll over at IST midnight
+        if (!current.istDay.equals(LocalDate.now(IST_ZONE))) {
+            return true;
+        }
+        return pendingRebuild && ageMillis(current) >= minRebuildIntervalMillis;
+    }
+
+    /**
+     * Rebuild unless another caller finished one since rebuildsSeen was read. The queries run without
+     * the snapshot lock; only the swap and the replay of changes buffered meanwhile hold it.
+     */
+    private void rebuild(long rebuildsSeen) {
+        synchronized (rebuildMonitor) {
+            if (rebuilds.get() != rebuildsSeen) {
+                return; // Someone else rebuilt while we waited
+            }
+            long startTime = System.currentTimeMillis();
+            long sequence = changeSequence.get();
+            synchronized (lock) {
+                bufferedChanges = new ArrayList<>();
+                bufferIncomplete = false;
+            }
+
+            Snapshot rebuilt;
+            try {
+                rebuilt = buildSnapshot();
+            } catch (RuntimeException e) {
+                synchronized (lock) {
+                    bufferedChanges = null;
+                }
+                throw e;
+            }
+
+            synchronized (lock) {
+                // Changes that committed while the queries ran may already be counted by them; replaying them
+                // matches how they were applied before, and the pending rebuild below corrects any overlap
+                if (!bufferIncomplete && !bufferedChanges.isEmpty()) {
+                    rebuilt.applyAll(bufferedChanges);
+                }
+                bufferedChanges = null;
+                snapshot = rebuilt;
+                version.incrementAndGet();
+                pendingRebuild = changeSequence.get() != sequence;
+                rebuilds.incrementAndGet();
+            }
+            log.info("📸 Metrics snapshot rebuilt in {}ms - {} customers, {} states",
+                    System.currentTimeMillis() - startTime, rebuilt.totalCustomers, rebuilt.states.size());
+        }
+    }
+
+    private Snapshot buildSnapshot() {
+        Snapshot rebuilt = new Snapshot();
+        rebuilt.istDay = LocalDate.now(IST_ZONE);
+        rebuilt.todayStartUtc = rebuilt.istDay.atStartOfDay(IST_ZONE).withZoneSameInstant(UTC_ZONE).toLocalDateTime();
+        rebuilt.totalCustomers = customerRepository.count();
+        for (Object[] row : customerRepository.getCustomerStatusBreakdown()) {
+            rebuilt.statusCounts.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        for (Object[] row : customerRepository.getStateSummaryAggregates()) {
+            StateCounts counts = new StateCounts();
+            counts.total = ((Number) row[1]).intValue();
+            counts.completed = row[2] != null ? ((Number) row[2]).longValue() : 0L;
+            counts.assigned = row[3] != null ? ((Number) row[3]).longValue() : 0L;
+            counts.activeUsers = ((Number) row[4]).longValue();
+            rebuilt.states.put((String) row[0], counts);
+        }
+        for (Map<String, Object> user : leaderboardService.getTopUsers(null, TOP_USERS, LeaderboardService.SortBy.ASSIGNED)) {
+            Map<String, Object> entry = new HashMap<>(user);
+            rebuilt.topUsers.add(entry);
+            rebuilt.topUsersById.put((Long) entry.get("userId"), entry);
+        }
+        rebuilt.generatedAt = LocalDateTime.now();
+        return rebuilt;
+    }
+
+    private static long ageMillis(Snapshot current) {
+        return Duration.between(current.generatedAt, LocalDateTime.now()).toMillis();
+    }
+
+    private static long getLong(Map<String, Object> entry, String key) {
+        Object value = entry.get(key);
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private static class StateCounts {
+        private int total;
+        private long completed;
+        private long assigned;
+        private long activeUsers;
+    }
+
+    private static class Snapshot {
+        private long totalCustomers;
+        private final Map<String, Long> statusCounts = new LinkedHashMap<>();
+        private final Map<String, StateCounts> states = new HashMap<>();
+        private final List<Map<String, Object>> topUsers = new ArrayList<>();
+        private final Map<Long, Map<String, Object>> topUsersById = new HashMap<>();
+        private LocalDate istDay;
+        private LocalDateTime todayStartUtc;
+        private LocalDateTime generatedAt;
+        private LocalDateTime lastDeltaAt;
+        private long deltasApplied;
+
+        private void applyAll(List<CustomerChangeEvent.RowChange> changes) {
+            for (CustomerChangeEvent.RowChange change : changes) {
+                apply(change.getBefore(), -1);
+                apply(change.getAfter(), 1);
+            }
+            sortTopUsers();
+            deltasApplied += changes.size();
+            lastDeltaAt = LocalDateTime.now();
+        }
+
+        // Add (sign = 1) or remove (sign = -1) one row's contribution - mirrors the rebuild queries
+        private void apply(CustomerSnapshot row, int sign) {
+            if (row == null) {
+                return;
+            }
+            statusCounts.merge(row.getStatus() != null ? row.getStatus() : "not_started", (long) sign, Long::sum);
+
+            boolean closed = Boolean.TRUE.equals(row.getIsClosed());
+            if (row.getState() != null && !row.getState().trim().isEmpty()) {
+                StateCounts counts = states.get(row.getState());
+                if (counts != null) {
+                    if (closed) {
+                        counts.completed += sign;
+                    }
+                    if (row.getAssignedTo() != null) {
+                        counts.assigned += sign;
+                    }
+                }
+            }
+
+            if (row.getAssignedTo() != null) {
+                Map<String, Object> assignee = topUsersById.get(row.getAssignedTo());
+                if (assignee != null) {
+                    assignee.put("assignedCount", getLong(assignee, "assignedCount") + sign);
+                }
+            }
+            if (row.getStatusUpdatedBy() != null) {
+                Map<String, Object> updater = topUsersById.get(row.getStatusUpdatedBy());
+                if (updater != null) {
+                    if (closed) {
+                        updater.put("completedCount", getLong(updater, "completedCount") + sign);
+                    }
+                    if (row.getLastStatusUpdated() != null && !row.getLastStatusUpdated().isBefore(todayStartUtc)) {
+                        updater.put("todayUpdatedCount", getLong(updater, "todayUpdatedCount") + sign);
+                    }
+                }
+            }
+        }
+
+        // Same order as LeaderboardService: assigned, then completed, then username
+        private void sortTopUsers() {
+            topUsers.sort(Comparator.<Map<String, Object>>comparingLong(user -> getLong(user, "assignedCount")).reversed()
+                    .thenComparing(Comparator.<Map<String, Object>>comparingLong(user -> getLong(user, "completedCount")).reversed())
+                    .thenComparing(user -> (String) user.get("username")));
+        }
+
+        private Map<String, Object> toOverview(String from, String to, boolean pendingRebuild, long refreshIntervalMillis) {
+            List<Map<String, Object>> statusBreakdown = new ArrayList<>();
+            statusCounts.forEach((status, count) -> {
+                if (count > 0) {
+                    statusBreakdown.add(MetricsService.toStatusEntry(status, count));
+                }
+            });
+            MetricsService.sortStatusBreakdown(statusBreakdown);
+
+            List<Map<String, Object>> statesSummary = new ArrayList<>();
+            states.forEach((state, counts) -> statesSummary.add(MetricsService.toStateSummary(
+                    state, counts.total, counts.completed, counts.assigned, counts.activeUsers)));
+            MetricsService.sortStatesSummary(statesSummary);
+
+            List<Map<String, Object>> users = new ArrayList<>();
+            for (Map<String, Object> user : topUsers) {
+                users.add(new HashMap<>(user));
+            }
+
+            Map<String, Object> overview = MetricsService.buildOverview(
+                    totalCustomers, statusBreakdown, statesSummary, users, from, to);
+
+            Map<String, Object> snapshotInfo = new HashMap<>();
+            snapshotInfo.put("generated_at", generatedAt);
+            snapshotInfo.put("age_seconds", ageMillis(this) / 1000);
+            snapshotInfo.put("last_delta_at", lastDeltaAt);
+            snapshotInfo.put("deltas_applied", deltasApplied);
+            snapshotInfo.put("pending_rebuild", pendingRebuild);
+            snapshotInfo.put("refresh_interval_seconds", refreshIntervalMillis / 1000);
+            snapshotInfo.put("approximate_fields", APPROXIMATE_FIELDS);
+            overview.put("snapshot", snapshotInfo);
+            return overview;
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.insurance.management.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics Stream Service - Live admin metrics over Server-Sent Events
+ * Each tick (debounce interval) checks whether the metrics snapshot moved; if so the overview is read
+ * once, diffed against the last broadcast and only the changed sections are serialized once and pushed
+ * to every connected admin. New subscribers get the full overview first. Broadcasts run on their own
+ * executor and only queue events while holding the broadcast lock; each client's queue is written out on
+ * the send executor, and a client that falls more than max-pending-events behind is dropped on its own.
+ */
+@Service
+@Slf4j
+public class MetricsStreamService {
+
+    // Overview sections that are diffed and pushed; the rest (date range, snapshot metadata) is not live data
+    private static final List<String> SECTIONS = List.of("totalCustomers", "statusBreakdown", "statesSummary", "topUsers");
+
+    private final MetricsSnapshotService snapshotService;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor metricsStreamExecutor;
+    private final ThreadPoolTaskExecutor metricsStreamSendExecutor;
+    private final long emitterTimeoutMillis;
+    private final long heartbeatMillis;
+    private final int maxClients;
+    private final int maxPendingEvents;
+
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+
+    // Broadcast state - guarded by broadcastLock
+    private final Object broadcastLock = new Object();
+    private long lastVersion = -1;
+    private Map<String, Object> lastSections = new HashMap<>();
+    private long lastSentAt = System.currentTimeMillis();
+
+    private final AtomicLong eventSequence = new AtomicLong(0);
+    private final AtomicLong broadcasts = new AtomicLong(0);
+    private final AtomicLong eventsSent = new AtomicLong(0);
+    private final AtomicLong clientsDropped = new AtomicLong(0);
+
+    public MetricsStreamService(MetricsSnapshotService snapshotService,
+                                ObjectMapper objectMapper,
+                                @Qualifier("metricsStreamExecutor") ThreadPoolTaskExecutor metricsStreamExecutor,
+                                @Qualifier("metricsStreamSendExecutor") ThreadPoolTaskExecutor metricsStreamSendExecutor,
+                                @Value("${app.metrics.stream.emitter-timeout-ms:1800000}") long emitterTimeoutMillis,
+                                @Value("${app.metrics.stream.heartbeat-ms:20000}") long heartbeatMillis,
+                                @Value("${app.metrics.stream.max-clients:50}") int maxClients,
+                                @Value("${app.metrics.stream.max-pending-events:8}") int maxPendingEvents) {
+        this.snapshotService = snapshotService;
+        this.objectMapper = objectMapper;
+        this.metricsStreamExecutor = metricsStreamExecutor;
+        this.metricsStreamSendExecutor = metricsStreamSendExecutor;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.heartbeatMillis = heartbeatMillis;
+        this.maxClients = maxClients;
+        this.maxPendingEvents = maxPendingEvents;
+    }
+
+    /**
+     * Register a new admin connection and send it the current overview
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Client client = new Client(emitter);
+        emitter.onCompletion(() -> clients.remove(client));
+        emitter.onTimeout(() -> {
+            clients.remove(client);
+            emitter.complete();
+        });
+        emitter.onError(error -> clients.remove(client));
+
+        synchronized (broadcastLock) {
+            // Checked under the same lock as the add, so concurrent subscribes cannot overshoot the limit
+            if (clients.size() >= maxClients) {
+                throw new IllegalStateException("Too many metrics stream connections (max " + maxClients + ")");
+            }
+            long version = snapshotService.getVersion();
+            Map<String, Object> overview = snapshotService.getOverview(null, null, false);
+            if (clients.isEmpty()) {
+                // First subscriber - diff the next broadcast against what it was just sent
+                lastVersion = version;
+                lastSections = sectionsOf(overview);
+            }
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("sequence", eventSequence.get());
+            payload.put("sent_at", LocalDateTime.now());
+            payload.put("overview", overview);
+            // Queued under the lock, so the snapshot always goes out ahead of the deltas that follow it
+            clients.add(client);
+            client.enqueue(new StreamEvent("snapshot", eventSequence.get(), serialize(payload)));
+        }
+
+        log.info("📡 Metrics stream subscribed - {} connected", clients.size());
+        return emitter;
+    }
+
+    /**
+     * Hand the broadcast to the stream executor once per debounce interval; skipped while one is still running
+     */
+    @Scheduled(fixedDelayString = "${app.metrics.stream.debounce-ms:2000}")
+    public void scheduleBroadcast() {
+        if (!clients.isEmpty()) {
+            metricsStreamExecutor.execute(this::broadcast);
+        }
+    }
+
+    /**
+     * Queue changed sections for every subscriber; the writes happen on the send executor, outside the lock
+     */
+    public void broadcast() {
+        if (clients.isEmpty()) {
+            return;
+        }
+
+        synchronized (broadcastLock) {
+            long version = snapshotService.getVersion();
+            if (version == lastVersion) {
+                heartbeat();
+                return;
+            }
+            lastVersion = version;
+
+            Map<String, Object> overview = snapshotService.getOverview(null, null, false);
+            Map<String, Object> changes = new LinkedHashMap<>();
+            for (String section : SECTIONS) {
+                Object value = overview.get(section);
+                if (!Objects.equals(value, lastSections.get(section))) {
+                    changes.put(section, value);
+                }
+            }
+            lastSections = sectionsOf(overview);
+
+            if (changes.isEmpty()) {
+                heartbeat();
+                return;
+            }
+
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("sequence", eventSequence.incrementAndGet());
+            payload.put("sent_at", LocalDateTime.now());
+            payload.put("changes", changes);
+            payload.put("snapshot", overview.get("snapshot"));
+
+            // One serialized payload shared by every connection
+            StreamEvent event = new StreamEvent("delta", eventSequence.get(), serialize(payload));
+            for (Client client : clients) {
+                client.enqueue(event);
+            }
+            broadcasts.incrementAndGet();
+            lastSentAt = System.currentTimeMillis();
+            log.debug("📡 Metrics delta broadcast - sections: {}, clients: {}", changes.keySet(), clients.size());
+        }
+    }
+
+    /**
+     * Get stream statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("connected", clients.size());
+        stats.put("max_clients", maxClients);
+        stats.put("max_pending_events", maxPendingEvents);
+        stats.put("sequence", eventSequence.get());
+        stats.put("broadcasts", broadcasts.get());
+        stats.put("events_sent", eventsSent.get());
+        stats.put("clients_dropped", clientsDropped.get());
+        return stats;
+    }
+
+    // Keeps proxies from closing idle connections and surfaces clients that went away
+    private void heartbeat() {
+        if (System.currentTimeMillis() - lastSentAt < heartbeatMillis) {
+            return;
+        }
+        for (Client client : clients) {
+            client.enqueue(StreamEvent.KEEPALIVE);
+        }
+        lastSentAt = System.currentTimeMillis();
+    }
+
+    private static Map<String, Object> sectionsOf(Map<String, Object> overview) {
+        Map<String, Object> sections = new HashMap<>();
+        for (String section : SECTIONS) {
+            sections.put(section, overview.get(section));
+        }
+        return sections;
+    }
+
+    private void remove(Client client) {
+        if (clients.remove(client)) {
+            clientsDropped.incrementAndGet();
+            log.debug("📡 Metrics stream client dropped - {} connected", clients.size());
+        }
+    }
+
+    private String serialize(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize metrics payload", e);
+        }
+    }
+
+    /**
+     * One connection and the events queued for it; at most one drain task runs per client,
+     * so events go out in the order they were queued and only that task ever writes to the emitter
+     */
+    private final class Client {
+        private final SseEmitter emitter;
+        private final Deque<StreamEvent> pending = new ArrayDeque<>();   // guarded by this
+        private boolean draining;                                        // guarded by this
+        private boolean closing;                                         // guarded by this
+
+        private Client(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // Never touches the connection; a client already max-pending-events behind is dropped instead
+        private void enqueue(StreamEvent event) {
+            synchronized (this) {
+                if (closing) {
+                    return;
+                }
+                if (pending.size() < maxPendingEvents) {
+                    pending.add(event);
+                    if (draining) {
+                        return;
+                    }
+                    draining = true;
+                } else {
+                    // The running drain task is stuck in a write; it completes the emitter once that returns,
+                    // since complete() waits on the same emitter monitor as the write
+                    pending.clear();
+                    closing = true;
+                    log.warn("🐢 Metrics stream client too slow - more than {} events pending, dropping it",
+                            maxPendingEvents);
+                    remove(this);
+                    return;
+                }
+            }
+            try {
+                metricsStreamSendExecutor.execute(this::drain);
+            } catch (TaskRejectedException e) {
+                log.warn("📡 Metrics stream send executor full - dropping client");
+                close();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                StreamEvent event;
+                synchronized (this) {
+                    if (closing) {
+                        break;
+                    }
+                    event = pending.poll();
+                    if (event == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(event.toBuilder());
+                    if (event != StreamEvent.KEEPALIVE) {
+                        eventsSent.incrementAndGet();
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    break;
+                }
+            }
+            close();
+        }
+
+        // Only called with no write in flight on this emitter
+        private void close() {
+            synchronized (this) {
+                closing = true;
+                draining = false;
+                pending.clear();
+            }
+            remove(this);
+            emitter.complete();
+        }
+    }
+
+    /**
+     * A serialized event; built into a fresh SseEventBuilder per connection since builders are single-use
+     */
+    private static final class StreamEvent {
+        private static final StreamEvent KEEPALIVE = new StreamEvent(null, 0, null);
+
+        private final String name;
+        private final long sequence;
+        private final String json;
+
+        private StreamEvent(String name, long sequence, String json) {
+            this.name = name;
+            this.sequence = sequence;
+            this.json = json;
+        }
+
+        private SseEmitter.SseEventBuilder toBuilder() {
+            if (this == KEEPALIVE) {
+                return SseEmitter.event().comment("keepalive");
+            }
+            return SseEmitter.event()
+                    .name(name)
+                    .id(String.valueOf(sequence))
+                    .data(json, MediaType.APPLICATION_JSON);
+        }
+    }
+}
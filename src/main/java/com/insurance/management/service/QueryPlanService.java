@@ -0,0 +1,139 @@
+package com.insurance.management.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Query Plan Service - Captures SQL Server estimated plans for the hot repository queries
+ * Each query is compiled under SHOWPLAN_XML (never executed) and checked for index seeks, so the
+ * indexes from the migrations can be verified against a live database.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QueryPlanService {
+
+    private static final Pattern PHYSICAL_OP = Pattern.compile("PhysicalOp=\"([^\"]+)\"");
+    private static final Pattern INDEX_NAME = Pattern.compile("Index=\"\\[([^\\]]+)\\]\"");
+    private static final Set<String> SCAN_OPS = Set.of("Table Scan", "Clustered Index Scan", "Index Scan");
+
+    // Same predicates as the repository queries, with fixed sample values; plans are estimated only
+    private static final Map<String, String> HOT_QUERIES = new LinkedHashMap<>();
+    static {
+        HOT_QUERIES.put("allocated_open_count",
+                "SELECT COUNT(*) FROM customers c WHERE c.assigned_to = 1 " +
+                "AND (c.is_closed = 0 OR c.is_closed IS NULL) " +
+                "AND (c.customer_status <> 'follow_up' OR c.reminder_date IS NULL OR c.reminder_date <= GETUTCDATE())");
+        HOT_QUERIES.put("allocated_queue_page",
+                "SELECT c.id FROM customers c WHERE c.assigned_to = 1 " +
+                "AND (c.is_closed = 0 OR c.is_closed IS NULL) " +
+                "AND (c.customer_status <> 'follow_up' OR c.reminder_date IS NULL OR c.reminder_date <= GETUTCDATE()) " +
+                "ORDER BY c.queue_sort_at DESC, c.id DESC OFFSET 0 ROWS FETCH NEXT 20 ROWS ONLY");
+        HOT_QUERIES.put("follow_up_count",
+                "SELECT COUNT(*) FROM customers c WHERE c.assigned_to = 1 AND c.customer_status = 'follow_up' " +
+                "AND c.reminder_date IS NOT NULL AND c.reminder_date <= DATEADD(DAY, 7, GETUTCDATE()) " +
+                "AND (c.is_closed = 0 OR c.is_closed IS NULL)");
+        HOT_QUERIES.put("status_breakdown_for_user",
+                "SELECT c.customer_status, c.is_closed, COUNT(*) FROM customers c WHERE c.status_updated_by = 1 " +
+                "AND c.customer_status IS NOT NULL GROUP BY c.customer_status, c.is_closed");
+        HOT_QUERIES.put("submissions_for_user",
+                "SELECT TOP 20 c.id, c.last_status_updated FROM customers c WHERE c.status_updated_by = 1 " +
+                "AND c.is_closed = 1 ORDER BY c.last_status_updated DESC");
+        HOT_QUERIES.put("unassigned_in_state",
+                "SELECT COUNT(*) FROM customers c WHERE c.state = N'Karnataka' AND c.assigned_to IS NULL");
+        HOT_QUERIES.put("mobile_suffix_lookup",
+                "SELECT TOP 20 c.id FROM customers c WHERE c.mobile_rev LIKE N'4321%' ORDER BY c.mobile_rev, c.id");
+        HOT_QUERIES.put("registration_suffix_lookup",
+                "SELECT TOP 20 c.id FROM customers c WHERE c.registration_rev LIKE N'4321%' ORDER BY c.registration_rev, c.id");
+        HOT_QUERIES.put("user_by_username",
+                "SELECT u.id FROM app_users u WHERE u.username = N'admin'");
+        HOT_QUERIES.put("user_by_email",
+                "SELECT u.id FROM app_users u WHERE u.email = N'admin@example.com'");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Estimated plan summary for every hot query; requires SQL Server
+     */
+    public Map<String, Object> inspectHotQueries() {
+        return jdbcTemplate.execute((ConnectionCallback<Map<String, Object>>) connection -> {
+            String product = connection.getMetaData().getDatabaseProductName();
+            if (product == null || !product.contains("SQL Server")) {
+                throw new IllegalStateException("Query plans can only be captured on SQL Server, not " + product);
+            }
+
+            List<Map<String, Object>> queries = new ArrayList<>();
+            boolean allSeek = true;
+            try (Statement statement = connection.createStatement()) {
+                // SHOWPLAN_XML is per connection and must be set in its own batch
+                statement.execute("SET SHOWPLAN_XML ON");
+                try {
+                    for (Map.Entry<String, String> query : HOT_QUERIES.entrySet()) {
+                        Map<String, Object> result = summarize(query.getKey(), capturePlan(statement, query.getValue()));
+                        allSeek &= (Boolean) result.get("uses_index_seek");
+                        queries.add(result);
+                    }
+                } finally {
+                    statement.execute("SET SHOWPLAN_XML OFF");
+                }
+            }
+
+            Map<String, Object> report = new HashMap<>();
+            report.put("database", product);
+            report.put("all_use_index_seek", allSeek);
+            report.put("queries", queries);
+            log.info("🔎 Captured plans for {} hot queries - all seek: {}", queries.size(), allSeek);
+            return report;
+        });
+    }
+
+    private static String capturePlan(Statement statement, String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1));
+            }
+        }
+        return plan.toString();
+    }
+
+    private static Map<String, Object> summarize(String name, String planXml) {
+        Set<String> operators = new LinkedHashSet<>();
+        Matcher opMatcher = PHYSICAL_OP.matcher(planXml);
+        while (opMatcher.find()) {
+            operators.add(opMatcher.group(1));
+        }
+        Set<String> indexes = new LinkedHashSet<>();
+        Matcher indexMatcher = INDEX_NAME.matcher(planXml);
+        while (indexMatcher.find()) {
+            indexes.add(indexMatcher.group(1));
+        }
+
+        boolean seek = operators.stream().anyMatch(op -> op.contains("Seek"));
+        boolean scan = operators.stream().anyMatch(SCAN_OPS::contains);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("query", name);
+        result.put("uses_index_seek", seek && !scan);
+        result.put("operators", operators);
+        result.put("indexes", indexes);
+        return result;
+    }
+}
@@ -0,0 +1,191 @@
+package com.insurance.management.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Request Coalescer - Single-flight execution for expensive read endpoints
+ * Identical concurrent calls (same endpoint and normalized parameters) wait for one in-flight computation
+ * and share its result; a successful result is also reused for a short TTL. Failures are never cached.
+ * Shared results must be treated as read-only by callers.
+ */
+@Service
+@Slf4j
+public class RequestCoalescer {
+
+    private final boolean enabled;
+    private final long resultTtlMillis;
+
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+    private final Map<String, EndpointStats> statsByEndpoint = new ConcurrentHashMap<>();
+
+    public RequestCoalescer(@Value("${app.coalescing.enabled:true}") boolean enabled,
+                            @Value("${app.coalescing.result-ttl-ms:1000}") long resultTtlMillis) {
+        this.enabled = enabled;
+        this.resultTtlMillis = Math.max(0, resultTtlMillis);
+        log.info("🔀 Request coalescer initialized - enabled: {}, result TTL: {}ms", enabled, this.resultTtlMillis);
+    }
+
+    /**
+     * Run the computation, or join an identical one that is in flight or finished within the TTL
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String endpoint, Map<String, ?> params, Supplier<T> computation) {
+        EndpointStats stats = statsByEndpoint.computeIfAbsent(endpoint, key -> new EndpointStats());
+        stats.requests.incrementAndGet();
+        if (!enabled) {
+            stats.computations.incrementAndGet();
+            return computation.get();
+        }
+
+        String key = key(endpoint, params);
+        Flight created = new Flight();
+        Flight flight = flights.compute(key, (k, existing) ->
+                existing != null && !existing.isExpired(resultTtlMillis) ? existing : created);
+
+        if (flight != created) {
+            if (flight.future.isDone()) {
+                stats.ttlHits.incrementAndGet();
+            } else {
+                stats.coalesced.incrementAndGet();
+            }
+            return (T) await(flight);
+        }
+
+        stats.computations.incrementAndGet();
+        try {
+            T result = computation.get();
+            flight.completedAt = System.currentTimeMillis();
+            flight.future.complete(result);
+            if (resultTtlMillis == 0) {
+                flights.remove(key, flight);
+            }
+            return result;
+        } catch (RuntimeException | Error e) {
+            // Waiters see the same failure; the next caller starts a fresh computation
+            flights.remove(key, flight);
+            flight.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Parameter map from name/value pairs; null values are allowed and ignored in the key
+     */
+    public static Map<String, Object> params(Object... namesAndValues) {
+        Map<String, Object> params = new HashMap<>();
+        for (int i = 0; i + 1 < namesAndValues.length; i += 2) {
+            params.put(String.valueOf(namesAndValues[i]), namesAndValues[i + 1]);
+        }
+        return params;
+    }
+
+    /**
+     * Drop finished results whose TTL has passed
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpired() {
+        flights.entrySet().removeIf(entry -> entry.getValue().isExpired(resultTtlMillis));
+    }
+
+    /**
+     * Get coalescing statistics, overall and per endpoint
+     */
+    public Map<String, Object> getStats() {
+        long requests = 0;
+        long computations = 0;
+        Map<String, Object> endpoints = new TreeMap<>();
+        for (Map.Entry<String, EndpointStats> entry : statsByEndpoint.entrySet()) {
+            EndpointStats stats = entry.getValue();
+            requests += stats.requests.get();
+            computations += stats.computations.get();
+            endpoints.put(entry.getKey(), stats.toMap());
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("enabled", enabled);
+        result.put("result_ttl_ms", resultTtlMillis);
+        result.put("in_flight_or_cached", flights.size());
+        result.put("requests", requests);
+        result.put("computations", computations);
+        result.put("coalescing_ratio", ratio(requests, computations));
+        result.put("endpoints", endpoints);
+        return result;
+    }
+
+    // Blank parameters are dropped and the rest sorted, so ?a=1&b= and ?b=&a=1 share a flight
+    private static String key(String endpoint, Map<String, ?> params) {
+        StringBuilder key = new StringBuilder(endpoint);
+        if (params != null) {
+            Map<String, String> normalized = new TreeMap<>();
+            params.forEach((name, value) -> {
+                if (value != null && !value.toString().isBlank()) {
+                    normalized.put(name, value.toString().trim());
+                }
+            });
+            normalized.forEach((name, value) -> key.append('|').append(name).append('=').append(value));
+        }
+        return key.toString();
+    }
+
+    private static Object await(Flight flight) {
+        try {
+            return flight.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a coalesced request", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+
+    // Share of requests answered without their own computation
+    private static double ratio(long requests, long computations) {
+        return requests > 0 ? Math.round((1.0 - (double) computations / requests) * 1000) / 1000.0 : 0.0;
+    }
+
+    private static class Flight {
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        private volatile long completedAt;
+
+        private boolean isExpired(long ttlMillis) {
+            return future.isDone() && System.currentTimeMillis() - completedAt >= ttlMillis;
+        }
+    }
+
+    private static class EndpointStats {
+        private final AtomicLong requests = new AtomicLong(0);
+        private final AtomicLong computations = new AtomicLong(0);
+        private final AtomicLong coalesced = new AtomicLong(0);
+        private final AtomicLong ttlHits = new AtomicLong(0);
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("requests", requests.get());
+            map.put("computations", computations.get());
+            map.put("coalesced", coalesced.get());
+            map.put("ttl_hits", ttlHits.get());
+            map.put("coalescing_ratio", ratio(requests.get(), computations.get()));
+            return map;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.insurance.management.service;
+
+import com.insurance.management.dto.CustomerDTO;
+import com.insurance.management.event.CustomerChangeEvent;
+import com.insurance.management.event.CustomerSnapshot;
+import com.insurance.management.repository.CustomerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * User Analytics Store - Per-user counters behind GET /api/mobile/analytics
+ * Counters are loaded from the database on first read and then kept current by applying the
+ * before/after row snapshots carried by CustomerChangeEvent, so a read is O(1) instead of seven
+ * queries. Activity is bucketed by IST calendar day; today/week/month windows are sums over
+ * the buckets. A periodic reconciliation reloads every cached user and corrects any drift.
+ */
+@Component
+@Slf4j
+public class UserAnalyticsStore {
+
+    private static final ZoneId IST_ZONE = ZoneId.of("Asia/Kolkata");
+    private static final ZoneId UTC_ZONE = ZoneId.of("UTC");
+    private static final int IST_OFFSET_MINUTES = 330;
+    private static final int WEEK_DAYS = 7;
+    private static final int MONTH_DAYS = 30;
+
+    private final CustomerRepository customerRepository;
+    private final int maxUsers;
+    private final long idleEvictionMillis;
+
+    private final Map<Long, UserCounters> counters = new ConcurrentHashMap<>();
+
+    // Bumped whenever a change touching the user begins or finishes; a load that overlaps one is not cached
+    private final Map<Long, AtomicLong> changeSequence = new ConcurrentHashMap<>();
+
+    // Changes whose transaction is committing but whose delta has not been applied yet
+    private final Set<CustomerChangeEvent> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong loads = new AtomicLong(0);
+    private final AtomicLong deltasApplied = new AtomicLong(0);
+    private final AtomicLong reconciledDrifts = new AtomicLong(0);
+
+    public UserAnalyticsStore(CustomerRepository customerRepository,
+                              @Value("${app.mobile.analytics.max-users:5000}") int maxUsers,
+                              @Value("${app.mobile.analytics.idle-eviction-minutes:60}") long idleEvictionMinutes) {
+        this.customerRepository = customerRepository;
+        this.maxUsers = Math.max(1, maxUsers);
+        this.idleEvictionMillis = Math.max(1, idleEvictionMinutes) * 60000;
+        log.info("📊 User analytics store initialized - max users: {}", this.maxUsers);
+    }
+
+    /**
+     * Build the analytics response for a user from the in-memory counters
+     */
+    public CustomerDTO.AnalyticsData getAnalytics(Long userId) {
+        UserCounters userCounters = counters.get(userId);
+        if (userCounters != null) {
+            hits.incrementAndGet();
+        } else {
+            userCounters = loadAndMaybeCache(userId);
+        }
+        return userCounters.toAnalytics(todayIst());
+    }
+
+    /**
+     * Mark the users of a committing change so concurrent loads do not cache a half-applied view
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onCustomerChangeCommitting(CustomerChangeEvent event) {
+        if (event.getRowChanges().isEmpty()) {
+            return;
+        }
+        inFlight.add(event);
+        bumpSequence(event);
+    }
+
+    /**
+     * Apply the committed row deltas to every cached user they touch
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCustomerChange(CustomerChangeEvent event) {
+        if (event.getRowChanges().isEmpty()) {
+            return;
+        }
+        LocalDate oldestBucket = todayIst().minusDays(MONTH_DAYS);
+        for (CustomerChangeEvent.RowChange change : event.getRowChanges()) {
+            applySnapshot(change.getBefore(), -1, oldestBucket);
+            applySnapshot(change.getAfter(), 1, oldestBucket);
+        }
+        deltasApplied.addAndGet(event.getRowChanges().size());
+        bumpSequence(event);
+    }
+
+    /**
+     * Release the in-flight marker whether the transaction committed or rolled back
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void onCustomerChangeCompleted(CustomerChangeEvent event) {
+        if (inFlight.remove(event)) {
+            bumpSequence(event);
+        }
+    }
+
+    /**
+     * Reload every cached user from the database, correct drift and drop idle users - every 15 minutes by default
+     */
+    @Scheduled(fixedDelayString = "${app.mobile.analytics.reconcile-interval-ms:900000}")
+    public void reconcile() {
+        long idleCutoff = System.currentTimeMillis() - idleEvictionMillis;
+        int drifted = 0;
+        for (Map.Entry<Long, UserCounters> entry : counters.entrySet()) {
+            Long userId = entry.getKey();
+            if (entry.getValue().lastReadAt < idleCutoff) {
+                counters.remove(userId, entry.getValue());
+                continue;
+            }
+            try {
+                long sequence = currentSequence(userId);
+                UserCounters fresh = loadFromDatabase(userId);
+                if (isStable(userId, sequence)) {
+                    fresh.lastReadAt = entry.getValue().lastReadAt;
+                    if (!fresh.sameCountsAs(entry.getValue())) {
+                        drifted++;
+                    }
+                    counters.put(userId, fresh);
+                }
+            } catch (Exception e) {
+                log.warn("⚠️ Analytics reconciliation failed for user {}: {}", userId, e.getMessage());
+            }
+        }
+        changeSequence.keySet().removeIf(userId -> !counters.containsKey(userId));
+        if (drifted > 0) {
+            reconciledDrifts.addAndGet(drifted);
+            log.warn("📊 Analytics reconciliation corrected {} user(s) with drifted counters", drifted);
+        }
+    }
+
+    /**
+     * Get store statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("users", counters.size());
+        stats.put("max_users", maxUsers);
+        stats.put("hits", hits.get());
+        stats.put("loads", loads.get());
+        stats.put("deltas_applied", deltasApplied.get());
+        stats.put("reconciled_drifts", reconciledDrifts.get());
+        return stats;
+    }
+
+    private UserCounters loadAndMaybeCache(Long userId) {
+        long sequence = currentSequence(userId);
+        UserCounters loaded = loadFromDatabase(userId);
+        loads.incrementAndGet();
+        if (isStable(userId, sequence) && (counters.containsKey(userId) || counters.size() < maxUsers)) {
+            counters.put(userId, loaded);
+        }
+        return loaded;
+    }
+
+    private UserCounters loadFromDatabase(Long userId) {
+        LocalDate today = todayIst();
+        LocalDate oldestBucket = today.minusDays(MONTH_DAYS);
+        LocalDateTime oldestBucketUtc = oldestBucket.atStartOfDay(IST_ZONE).withZoneSameInstant(UTC_ZONE).toLocalDateTime();
+
+        UserCounters loaded = new UserCounters();
+        loaded.assigned = customerRepository.countByAssignedTo(userId);
+        loaded.closed = customerRepository.countClosedCustomersForUser(userId);
+        for (Object[] row : customerRepository.getStatusBreakdownForUser(userId)) {
+            loaded.statusCounts.merge(normalizeStatus((String) row[0]), ((Number) row[2]).longValue(), Long::sum);
+        }
+        for (Object[] row : customerRepository.getDailyCustomerUpdateStatsForUser(userId, oldestBucketUtc)) {
+            loaded.daily.put(toLocalDate(row[0]), ((Number) row[1]).longValue());
+        }
+        return loaded;
+    }
+
+    private void applySnapshot(CustomerSnapshot snapshot, int sign, LocalDate oldestBucket) {
+        if (snapshot == null) {
+            return;
+        }
+        if (snapshot.getAssignedTo() != null) {
+            UserCounters assignee = counters.get(snapshot.getAssignedTo());
+            if (assignee != null) {
+                synchronized (assignee) {
+                    assignee.assigned += sign;
+                }
+            }
+        }
+        if (snapshot.getStatusUpdatedBy() != null) {
+            UserCounters updater = counters.get(snapshot.getStatusUpdatedBy());
+            if (updater != null) {
+                synchronized (updater) {
+                    if (Boolean.TRUE.equals(snapshot.getIsClosed())) {
+                        updater.closed += sign;
+                    }
+                    if (snapshot.getStatus() != null) {
+                        updater.statusCounts.merge(normalizeStatus(snapshot.getStatus()), (long) sign, Long::sum);
+                    }
+                    if (snapshot.getLastStatusUpdated() != null) {
+                        LocalDate bucket = toIstDate(snapshot.getLastStatusUpdated());
+                        if (!bucket.isBefore(oldestBucket)) {
+                            updater.daily.merge(bucket, (long) sign, Long::sum);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void bumpSequence(CustomerChangeEvent event) {
+        for (Long userId : event.getUserIds()) {
+            changeSequence.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    private long currentSequence(Long userId) {
+        AtomicLong sequence = changeSequence.get(userId);
+        return sequence != null ? sequence.get() : 0L;
+    }
+
+    private boolean isStable(Long userId, long sequenceBeforeLoad) {
+        if (currentSequence(userId) != sequenceBeforeLoad) {
+            return false;
+        }
+        for (CustomerChangeEvent event : inFlight) {
+            if (event.affects(userId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static LocalDate todayIst() {
+        return LocalDate.now(IST_ZONE);
+    }
+
+    // Same bucketing as getDailyCustomerUpdateStatsForUser: CAST(DATEADD(MINUTE, 330, last_status_updated) AS DATE)
+    private static LocalDate toIstDate(LocalDateTime utcTimestamp) {
+        return utcTimestamp.plusMinutes(IST_OFFSET_MINUTES).toLocalDate();
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate();
+        }
+        return LocalDate.parse(value.toString().substring(0, 10));
+    }
+
+    private static String normalizeStatus(String status) {
+        return status != null ? status.toLowerCase() : null;
+    }
+
+    /**
+     * Counters for one user; mutated only while holding the instance monitor
+     */
+    private static class UserCounters {
+        private long assigned;
+        private long closed;
+        private final Map<String, Long> statusCounts = new HashMap<>();
+        private final TreeMap<LocalDate, Long> daily = new TreeMap<>();
+        private volatile long lastReadAt = System.currentTimeMillis();
+
+        private synchronized CustomerDTO.AnalyticsData toAnalytics(LocalDate today) {
+            lastReadAt = System.currentTimeMillis();
+            daily.headMap(today.minusDays(MONTH_DAYS)).clear(); // Roll the window
+
+            CustomerDTO.AnalyticsData analyticsData = new CustomerDTO.AnalyticsData();
+
+            CustomerDTO.AnalyticsData.AnalyticsSummary summary = new CustomerDTO.AnalyticsData.AnalyticsSummary();
+            summary.setTodayCount((int) sumSince(today));
+            summary.setWeekCount((int) sumSince(today.minusDays(WEEK_DAYS)));
+            summary.setMonthCount((int) sumSince(today.minusDays(MONTH_DAYS)));
+
+            // Total assigned = currently assigned + previously completed
+            summary.setTotalAssigned((int) (assigned + closed));
+            summary.setCompletedCount((int) closed);
+            summary.setCompletionRate(summary.getTotalAssigned() > 0
+                    ? (double) summary.getCompletedCount() / summary.getTotalAssigned() * 100 : 0);
+            analyticsData.setSummary(summary);
+
+            CustomerDTO.AnalyticsData.StatusBreakdown breakdown = new CustomerDTO.AnalyticsData.StatusBreakdown();
+            breakdown.setActive(statusCount("active"));
+            breakdown.setRenewed(statusCount("renewed"));
+            breakdown.setNotInterested(statusCount("not_interested"));
+            breakdown.setNotReachable(statusCount("not_reachable"));
+            breakdown.setFollowUp(statusCount("follow_up"));
+            analyticsData.setStatusBreakdown(breakdown);
+
+            // Daily activity for the last 7 days, newest first, days without activity omitted
+            List<CustomerDTO.AnalyticsData.DailyActivity> dailyActivity = new ArrayList<>();
+            for (Map.Entry<LocalDate, Long> day : daily.tailMap(today.minusDays(WEEK_DAYS), true).descendingMap().entrySet()) {
+                if (day.getValue() > 0) {
+                    CustomerDTO.AnalyticsData.DailyActivity activity = new CustomerDTO.AnalyticsData.DailyActivity();
+                    activity.setDate(day.getKey().toString());
+                    activity.setCount(day.getValue().intValue());
+                    dailyActivity.add(activity);
+                }
+            }
+            analyticsData.setDailyActivity(dailyActivity);
+
+            return analyticsData;
+        }
+
+        private long sumSince(LocalDate fromInclusive) {
+            return daily.tailMap(fromInclusive, true).values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        private int statusCount(String status) {
+            return statusCounts.getOrDefault(status, 0L).intValue();
+        }
+
+        private synchronized boolean sameCountsAs(UserCounters other) {
+            synchronized (other) {
+                Map<LocalDate, Long> ours = new TreeMap<>(daily);
+                Map<LocalDate, Long> theirs = new TreeMap<>(other.daily);
+                ours.values().removeIf(count -> count == 0);
+                theirs.values().removeIf(count -> count == 0);
+                Map<String, Long> ourStatuses = new HashMap<>(statusCounts);
+                Map<String, Long> theirStatuses = new HashMap<>(other.statusCounts);
+                ourStatuses.values().removeIf(count -> count == 0);
+                theirStatuses.values().removeIf(count -> count == 0);
+                return assigned == other.assigned && closed == other.closed
+                        && ourStatuses.equals(theirStatuses) && ours.equals(theirs);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.insurance.management.service;
+
+import com.insurance.management.event.CustomerChangeEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * User Data Versions - Per-user version of the customer data behind the mobile lists and analytics
+ * Bumped when a change to one of the user's customers commits. ETags derived from it let an unchanged
+ * poll be answered with 304 without touching the customers table. Each ETag also carries a boot nonce
+ * and a time bucket, so writes made on another instance (or time-based changes such as follow-ups
+ * becoming due) are picked up within one bucket.
+ */
+@Component
+@Slf4j
+public class UserDataVersions {
+
+    private final String bootNonce = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final long bucketMillis;
+
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    // Bumped by changes whose affected users are not known
+    private final AtomicLong globalVersion = new AtomicLong(0);
+
+    private final AtomicLong issued = new AtomicLong(0);
+    private final AtomicLong notModified = new AtomicLong(0);
+
+    public UserDataVersions(@Value("${app.mobile.etag.time-bucket-seconds:60}") long timeBucketSeconds) {
+        this.bucketMillis = Math.max(1, timeBucketSeconds) * 1000;
+        log.info("🏷️ User data versions initialized - ETag time bucket: {}s", timeBucketSeconds);
+    }
+
+    /**
+     * Strong ETag for the user's current data version; variant identifies the resource and its parameters.
+     * Must be computed before the data is read, so a concurrent write can only make the tag too old, never too new.
+     */
+    public String etag(Long userId, String variant) {
+        AtomicLong version = versions.get(userId);
+        long bucket = System.currentTimeMillis() / bucketMillis;
+        issued.incrementAndGet();
+        return "\"" + bootNonce + "-" + globalVersion.get() + "." + (version != null ? version.get() : 0) +
+                "-" + Long.toString(bucket, 36) + "-" + Integer.toHexString(variant.hashCode()) + "\"";
+    }
+
+    /**
+     * Whether an If-None-Match header value matches the current ETag (weak comparison, as RFC 9110 requires)
+     */
+    public boolean isNotModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                notModified.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bump the version of every user affected by a committed customer change
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCustomerChange(CustomerChangeEvent event) {
+        if (event.isAllUsers()) {
+            globalVersion.incrementAndGet();
+        }
+        for (Long userId : event.getUserIds()) {
+            versions.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    /**
+     * Get version statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("users", versions.size());
+        stats.put("global_version", globalVersion.get());
+        stats.put("time_bucket_seconds", bucketMillis / 1000);
+        stats.put("etags_issued", issued.get());
+        stats.put("not_modified", notModified.get());
+        return stats;
+    }
+}
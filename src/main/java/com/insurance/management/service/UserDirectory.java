@@ -0,0 +1,332 @@
+package com.insurance.management.service;
+
+import com.insurance.management.entity.User;
+import com.insurance.management.event.UserChangeEvent;
+import com.insurance.management.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * User Directory - In-memory copy of app_users indexed by role, state and active/locked flags
+ * Loaded once, then kept current from UserChangeEvents after each commit and fully reloaded on a
+ * schedule to pick up writes made outside UserService. Answers the role/state lookups and the user
+ * metrics without touching the database; callers always receive detached copies.
+ */
+@Component
+@Slf4j
+public class UserDirectory {
+
+    private final UserRepository userRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object reloadMonitor = new Object();
+
+    // All guarded by lock
+    private final Map<Long, User> usersById = new HashMap<>();
+    private final Map<User.UserRole, Set<Long>> idsByRole = new EnumMap<>(User.UserRole.class);
+    private final Map<String, Set<Long>> idsByState = new HashMap<>();
+    private final Map<String, String> stateDisplayNames = new HashMap<>();
+    private final Set<Long> activeIds = new HashSet<>();   // is_active and is_locked = false, as countActiveUsers
+    private final Set<Long> lockedIds = new HashSet<>();
+    private boolean loaded;
+    private List<User> changesDuringReload;                 // non-null while a reload is reading the table
+
+    private final AtomicLong reloads = new AtomicLong(0);
+    private final AtomicLong changesApplied = new AtomicLong(0);
+    private final AtomicLong lookups = new AtomicLong(0);
+
+    public UserDirectory(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Users with the given role, ordered by ID
+     */
+    public List<User> findByRole(User.UserRole role) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            lookups.incrementAndGet();
+            return copies(idsByRole.getOrDefault(role, Collections.emptySet()), null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Users with the given role in the given state (compared like the database: trimmed, case-insensitive)
+     */
+    public List<User> findByRoleAndState(User.UserRole role, String state) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            lookups.incrementAndGet();
+            Set<Long> inState = idsByState.getOrDefault(stateKey(state), Collections.emptySet());
+            return copies(idsByRole.getOrDefault(role, Collections.emptySet()), inState);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Active, unlocked users with the given role
+     */
+    public List<User> findActiveByRole(User.UserRole role) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            lookups.incrementAndGet();
+            return copies(idsByRole.getOrDefault(role, Collections.emptySet()), activeIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Consistent user counts - total, active, per role and per state (largest state first)
+     */
+    public Counts getCounts() {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            lookups.incrementAndGet();
+            Map<String, Long> byRole = new LinkedHashMap<>();
+            for (User.UserRole role : User.UserRole.values()) {
+                byRole.put(role.name(), (long) idsByRole.getOrDefault(role, Collections.emptySet()).size());
+            }
+
+            List<Map.Entry<String, Set<Long>>> states = new ArrayList<>(idsByState.entrySet());
+            states.sort((a, b) -> Integer.compare(b.getValue().size(), a.getValue().size()));
+            Map<String, Long> byState = new LinkedHashMap<>();
+            for (Map.Entry<String, Set<Long>> entry : states) {
+                byState.put(stateDisplayNames.get(entry.getKey()), (long) entry.getValue().size());
+            }
+
+            return new Counts(usersById.size(), activeIds.size(), byRole, byState);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Apply committed user saves
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChange(UserChangeEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded && changesDuringReload == null) {
+                return;
+            }
+            for (User user : event.getUsers()) {
+                index(user);
+                if (changesDuringReload != null) {
+                    changesDuringReload.add(user);
+                }
+            }
+            changesApplied.addAndGet(event.getUsers().size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reload the whole table - every 10 minutes by default, once the directory is in use
+     */
+    @Scheduled(fixedDelayString = "${app.users.directory.refresh-interval-ms:600000}")
+    public void refresh() {
+        lock.readLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        reload();
+    }
+
+    /**
+     * Get directory statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("loaded", loaded);
+            stats.put("users", usersById.size());
+            stats.put("active", activeIds.size());
+            stats.put("locked", lockedIds.size());
+            stats.put("states", idsByState.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("reloads", reloads.get());
+        stats.put("changes_applied", changesApplied.get());
+        stats.put("lookups", lookups.get());
+        return stats;
+    }
+
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        synchronized (reloadMonitor) {
+            lock.readLock().lock();
+            try {
+                if (loaded) {
+                    return;
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            reload();
+        }
+    }
+
+    private void reload() {
+        synchronized (reloadMonitor) {
+            long startTime = System.currentTimeMillis();
+            lock.writeLock().lock();
+            try {
+                changesDuringReload = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            List<User> users;
+            try {
+                users = userRepository.findAll();
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    changesDuringReload = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                usersById.clear();
+                idsByRole.clear();
+                idsByState.clear();
+                stateDisplayNames.clear();
+                activeIds.clear();
+                lockedIds.clear();
+                for (User user : users) {
+                    index(UserChangeEvent.copyOf(user));
+                }
+                // Saves that committed while the table was being read may be missing from it
+                for (User user : changesDuringReload) {
+                    index(user);
+                }
+                changesDuringReload = null;
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            reloads.incrementAndGet();
+            log.info("📇 User directory loaded - {} users in {}ms", users.size(), System.currentTimeMillis() - startTime);
+        }
+    }
+
+    // Caller holds the write lock
+    private void index(User user) {
+        Long id = user.getId();
+        User previous = usersById.put(id, user);
+        if (previous != null) {
+            Set<Long> roleIds = idsByRole.get(previous.getUserRole());
+            if (roleIds != null) {
+                roleIds.remove(id);
+            }
+            String previousState = stateKey(previous.getLocationState());
+            Set<Long> stateIds = previousState != null ? idsByState.get(previousState) : null;
+            if (stateIds != null) {
+                stateIds.remove(id);
+                if (stateIds.isEmpty()) {
+                    idsByState.remove(previousState);
+                    stateDisplayNames.remove(previousState);
+                }
+            }
+            activeIds.remove(id);
+            lockedIds.remove(id);
+        }
+
+        idsByRole.computeIfAbsent(user.getUserRole(), role -> new HashSet<>()).add(id);
+        String state = stateKey(user.getLocationState());
+        if (state != null) {
+            idsByState.computeIfAbsent(state, key -> new HashSet<>()).add(id);
+            stateDisplayNames.putIfAbsent(state, user.getLocationState());
+        }
+        if (Boolean.TRUE.equals(user.getIsLocked())) {
+            lockedIds.add(id);
+        }
+        // A NULL is_locked fails "is_locked = false" in countActiveUsers, so it is not active either
+        if (Boolean.TRUE.equals(user.getIsActive()) && Boolean.FALSE.equals(user.getIsLocked())) {
+            activeIds.add(id);
+        }
+    }
+
+    // Caller holds the read lock; filter may be null
+    private List<User> copies(Collection<Long> ids, Set<Long> filter) {
+        List<User> result = new ArrayList<>();
+        for (Long id : new TreeSet<>(ids)) {
+            if (filter == null || filter.contains(id)) {
+                result.add(UserChangeEvent.copyOf(usersById.get(id)));
+            }
+        }
+        return result;
+    }
+
+    // SQL Server compares states case-insensitively and ignores trailing spaces; null means no state
+    private static String stateKey(String state) {
+        return state != null ? state.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * User counts read under one lock
+     */
+    public static class Counts {
+        private final long total;
+        private final long active;
+        private final Map<String, Long> byRole;
+        private final Map<String, Long> byState;
+
+        private Counts(long total, long active, Map<String, Long> byRole, Map<String, Long> byState) {
+            this.total = total;
+            this.active = active;
+            this.byRole = byRole;
+            this.byState = byState;
+        }
+
+        public long getTotal() { return total; }
+        public long getActive() { return active; }
+        public Map<String, Long> getByRole() { return byRole; }
+        public Map<String, Long> getByState() { return byState; }
+    }
+}
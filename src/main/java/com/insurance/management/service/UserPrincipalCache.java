@@ -0,0 +1,191 @@
+package com.insurance.management.service;
+
+import com.insurance.management.entity.User;
+import com.insurance.management.event.UserChangeEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * User Principal Cache - Bounded, TTL-based cache of authenticated users keyed by user ID
+ * Lets mobile token validation resolve the principal without a database round trip
+ * in the steady state. Entries are detached copies, evicted least-recently-used once the cache
+ * is full and invalidated once a UserService write to the account has committed.
+ */
+@Component
+@Slf4j
+public class UserPrincipalCache {
+
+    private final int maxSize;
+    private final long ttlMillis;
+
+    // Access-ordered map gives LRU eviction; guarded by its own monitor
+    private final LinkedHashMap<Long, CachedPrincipal> entries;
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+    private final AtomicLong expirations = new AtomicLong(0);
+    private final AtomicLong invalidations = new AtomicLong(0);
+
+    // Bumped on every invalidation so a load that raced with it is not cached
+    private final AtomicLong generation = new AtomicLong(0);
+
+    public UserPrincipalCache(@Value("${app.mobile.principal-cache.max-size:1000}") int maxSize,
+                              @Value("${app.mobile.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlMillis = Math.max(1, ttlSeconds) * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedPrincipal> eldest) {
+                if (size() > UserPrincipalCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        log.info("👤 Principal cache initialized - max size: {}, TTL: {}s", this.maxSize, ttlSeconds);
+    }
+
+    /**
+     * Get the cached user, loading it with the given loader on a miss.
+     * The loader runs outside the cache lock so a slow lookup never blocks other users;
+     * the loaded entity is cached and returned as a detached copy shared by every request thread.
+     */
+    public Optional<User> get(Long userId, Function<Long, Optional<User>> loader) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            CachedPrincipal cached = entries.get(userId);
+            if (cached != null) {
+                if (cached.expiresAt > now) {
+                    hits.incrementAndGet();
+                    return Optional.of(cached.user);
+                }
+                entries.remove(userId);
+                expirations.incrementAndGet();
+            }
+        }
+
+        misses.incrementAndGet();
+        long loadGeneration = generation.get();
+        Optional<User> loaded = loader.apply(userId).map(UserChangeEvent::copyOf);
+        loaded.ifPresent(user -> put(user, now, loadGeneration));
+        return loaded;
+    }
+
+    /**
+     * Drop committed users from the cache. Invalidating before commit would let a concurrent
+     * load re-cache the old row until the TTL runs out.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChange(UserChangeEvent event) {
+        for (User user : event.getUsers()) {
+            invalidate(user.getId());
+        }
+    }
+
+    /**
+     * Drop a single user from the cache
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        synchronized (entries) {
+            generation.incrementAndGet();
+            if (entries.remove(userId) != null) {
+                invalidations.incrementAndGet();
+                log.debug("🧹 Principal cache entry invalidated for user ID: {}", userId);
+            }
+        }
+    }
+
+    /**
+     * Drop every cached user
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            invalidations.addAndGet(entries.size());
+            entries.clear();
+        }
+    }
+
+    /**
+     * Remove expired entries so they do not count against the size bound - runs every minute
+     */
+    @Scheduled(fixedRate = 60000) // 1 minute
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Iterator<CachedPrincipal> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().expiresAt <= now) {
+                    iterator.remove();
+                    expirations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Get cache statistics (hit/miss/eviction counters)
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", size);
+        stats.put("max_size", maxSize);
+        stats.put("ttl_seconds", ttlMillis / 1000);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.get());
+        stats.put("expirations", expirations.get());
+        stats.put("invalidations", invalidations.get());
+        stats.put("hit_rate", lookups > 0 ? Math.round((double) hitCount / lookups * 10000) / 100.0 : 0.0);
+        return stats;
+    }
+
+    private void put(User user, long loadedAt, long loadGeneration) {
+        synchronized (entries) {
+            if (generation.get() != loadGeneration) {
+                return; // An invalidation happened while loading - do not cache a possibly stale user
+            }
+            entries.put(user.getId(), new CachedPrincipal(user, loadedAt + ttlMillis));
+        }
+    }
+
+    private static class CachedPrincipal {
+        private final User user;
+        private final long expiresAt;
+
+        private CachedPrincipal(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
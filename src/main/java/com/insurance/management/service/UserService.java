@@ -1,11 +1,14 @@
 package com.insurance.management.service;
 
 import com.insurance.management.entity.User;
+import com.insurance.management.event.UserChangeEvent;
 import com.insurance.management.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -27,6 +30,9 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserPrincipalCache principalCache;
+    private final UserDirectory userDirectory;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Authenticate user (for mobile and web login)
@@ -58,7 +64,7 @@ public class UserService {
         if (storedPassword == null || !storedPassword.equals(password)) {
             log.warn("🔐 Authentication failed - Invalid password for user: {}", identifier);
             user.incrementFailedLoginAttempts();
-            userRepository.save(user);
+            saveUser(user); // Account may have just been locked; the principal cache drops it after commit
             return Optional.empty();
         }
         
@@ -73,7 +79,7 @@ public class UserService {
      */
     public void updateLastLogin(User user, String ipAddress) {
         user.updateLastLogin(ipAddress);
-        userRepository.save(user);
+        saveUser(user);
         log.info("📝 Updated last login for user: {} from IP: {}", user.getUsername(), ipAddress);
     }
 
@@ -106,7 +112,7 @@ public class UserService {
         user.setUserRole(role != null ? role : User.UserRole.USER);
         user.setCreatedBy("SYSTEM");
         
-        User savedUser = userRepository.save(user);
+        User savedUser = saveUser(user);
         log.info("✅ Created new user: {} with role: {}", savedUser.getUsername(), savedUser.getUserRole());
         
         return savedUser;
@@ -119,6 +125,24 @@ public class UserService {
         return userRepository.findById(id);
     }
 
+    /**
+     * Find user by ID for token validation, served from the principal cache.
+     * Runs without a transaction so a cache hit never touches the connection pool.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<User> findPrincipalById(Long id) {
+        return principalCache.get(id, userRepository::findById);
+    }
+
+    /**
+     * Save changes made to a user by an administrator
+     */
+    public User updateUser(User user) {
+        User savedUser = saveUser(user, !user.isAccountActive());
+        log.info("📝 Updated user: {}", savedUser.getUsername());
+        return savedUser;
+    }
+
     /**
      * Find user by username
      */
@@ -144,7 +168,7 @@ public class UserService {
      * Get active mobile users (for mobile API authentication)
      */
     public List<User> getActiveMobileUsers() {
-        return userRepository.findActiveMobileUsers(User.UserRole.MOBILE_USER);
+        return userDirectory.findActiveByRole(User.UserRole.MOBILE_USER);
     }
 
     /**
@@ -158,14 +182,14 @@ public class UserService {
      * Get users by role
      */
     public List<User> getUsersByRole(User.UserRole role) {
-        return userRepository.findByUserRole(role);
+        return userDirectory.findByRole(role);
     }
 
     /**
      * Get users by role and state
      */
     public List<User> getUsersByRoleAndState(User.UserRole role, String state) {
-        return userRepository.findByUserRoleAndLocationState(role, state);
+        return userDirectory.findByRoleAndState(role, state);
     }
 
     /**
@@ -223,7 +247,7 @@ public class UserService {
         // Update password
         user.setPasswordHash(passwordEncoder.encode(newPassword));
         user.setPasswordChangedAt(LocalDateTime.now());
-        userRepository.save(user);
+        saveUser(user, true);
         
         log.info("✅ Password updated successfully for user: {}", user.getUsername());
         return true;
@@ -236,7 +260,7 @@ public class UserService {
         userRepository.findById(userId).ifPresent(user -> {
             user.setIsLocked(true);
             user.setAccountLockedUntil(null); // Permanent lock
-            userRepository.save(user);
+            saveUser(user, true);
             log.info("🔒 User account locked: {}", user.getUsername());
         });
     }
@@ -246,7 +270,7 @@ public class UserService {
             user.setIsLocked(false);
             user.setAccountLockedUntil(null);
             user.setFailedLoginAttempts(0);
-            userRepository.save(user);
+            saveUser(user);
             log.info("🔓 User account unlocked: {}", user.getUsername());
         });
     }
@@ -257,7 +281,7 @@ public class UserService {
     public void activateUser(Long userId) {
         userRepository.findById(userId).ifPresent(user -> {
             user.setIsActive(true);
-            userRepository.save(user);
+            saveUser(user);
             log.info("✅ User account activated: {}", user.getUsername());
         });
     }
@@ -265,7 +289,7 @@ public class UserService {
     public void deactivateUser(Long userId) {
         userRepository.findById(userId).ifPresent(user -> {
             user.setIsActive(false);
-            userRepository.save(user);
+            saveUser(user, true);
             log.info("❌ User account deactivated: {}", user.getUsername());
         });
     }
@@ -286,7 +310,7 @@ public class UserService {
         
         user.setIsVerified(true);
         user.setEmailVerificationToken(null);
-        userRepository.save(user);
+        saveUser(user);
         
         log.info("✅ Email verified successfully for user: {}", user.getUsername());
         return true;
@@ -304,7 +328,7 @@ public class UserService {
         User user = userOptional.get();
         String token = UUID.randomUUID().toString();
         user.setEmailVerificationToken(token);
-        userRepository.save(user);
+        saveUser(user);
         
         log.info("📧 Email verification token generated for user: {}", user.getUsername());
         return token;
@@ -323,7 +347,7 @@ public class UserService {
         String token = UUID.randomUUID().toString();
         user.setPasswordResetToken(token);
         user.setPasswordResetExpiresAt(LocalDateTime.now().plusHours(24)); // 24 hour expiry
-        userRepository.save(user);
+        saveUser(user);
         
         log.info("🔑 Password reset token generated for user: {}", user.getUsername());
         return token;
@@ -347,7 +371,7 @@ public class UserService {
         user.setPasswordChangedAt(LocalDateTime.now());
         user.setPasswordResetToken(null);
         user.setPasswordResetExpiresAt(null);
-        userRepository.save(user);
+        saveUser(user, true);
         
         log.info("🔑 Password reset successfully for user: {}", user.getUsername());
         return true;
@@ -365,7 +389,7 @@ public class UserService {
             user.setEmailVerificationToken(null);
         });
         if (!expiredEmailTokens.isEmpty()) {
-            userRepository.saveAll(expiredEmailTokens);
+            saveUsers(expiredEmailTokens);
             log.info("🧹 Cleaned up {} expired email verification tokens", expiredEmailTokens.size());
         }
         
@@ -376,7 +400,7 @@ public class UserService {
             user.setPasswordResetExpiresAt(null);
         });
         if (!expiredPasswordTokens.isEmpty()) {
-            userRepository.saveAll(expiredPasswordTokens);
+            saveUsers(expiredPasswordTokens);
             log.info("🧹 Cleaned up {} expired password reset tokens", expiredPasswordTokens.size());
         }
         
@@ -388,7 +412,7 @@ public class UserService {
             user.setFailedLoginAttempts(0);
         });
         if (!expiredLocks.isEmpty()) {
-            userRepository.saveAll(expiredLocks);
+            saveUsers(expiredLocks);
             log.info("🔓 Unlocked {} accounts with expired lock times", expiredLocks.size());
         }
     }
@@ -424,4 +448,23 @@ public class UserService {
         LocalDateTime fromDate = LocalDateTime.now().minusDays(days);
         return userRepository.getDailyUserLoginStats(fromDate);
     }
+
+    // Every app_users write goes through these so the user directory, principal cache and token
+    // revocations hear about it after commit
+
+    private User saveUser(User user) {
+        return saveUser(user, false);
+    }
+
+    private User saveUser(User user, boolean revokeTokens) {
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangeEvent(List.of(savedUser), revokeTokens));
+        return savedUser;
+    }
+
+    private List<User> saveUsers(List<User> users) {
+        List<User> savedUsers = userRepository.saveAll(users);
+        eventPublisher.publishEvent(new UserChangeEvent(savedUsers));
+        return savedUsers;
+    }
 }
@@ -0,0 +1,79 @@
+package com.insurance.management.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Cursor Codec - Encodes keyset pagination positions as opaque URL-safe strings
+ * A cursor is the (sort key, id) pair of the last row returned to the client; delta sync watermarks
+ * also carry when the client's current full sync started
+ */
+public final class CursorCodec {
+
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {
+    }
+
+    /**
+     * Encode the position of the last row on a page
+     */
+    public static String encode(LocalDateTime sortKey, Long id) {
+        String raw = sortKey + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Encode a delta sync watermark - the position plus the start of the client's last full sync
+     */
+    public static String encode(LocalDateTime sortKey, Long id, LocalDateTime fullSyncAt) {
+        String raw = sortKey + SEPARATOR + id + SEPARATOR + fullSyncAt;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor previously issued by {@link #encode}
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR);
+            if (parts.length != 2 && parts.length != 3) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            LocalDateTime sortKey = LocalDateTime.parse(parts[0]);
+            Long id = Long.parseLong(parts[1]);
+            LocalDateTime fullSyncAt = parts.length == 3 ? LocalDateTime.parse(parts[2]) : null;
+            return new Cursor(sortKey, id, fullSyncAt);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    /**
+     * Decoded keyset position
+     */
+    public static class Cursor {
+        private final LocalDateTime sortKey;
+        private final Long id;
+        private final LocalDateTime fullSyncAt; // delta sync watermarks only, otherwise null
+
+        public Cursor(LocalDateTime sortKey, Long id) {
+            this(sortKey, id, null);
+        }
+
+        public Cursor(LocalDateTime sortKey, Long id, LocalDateTime fullSyncAt) {
+            this.sortKey = sortKey;
+            this.id = id;
+            this.fullSyncAt = fullSyncAt;
+        }
+
+        public LocalDateTime getSortKey() { return sortKey; }
+        public Long getId() { return id; }
+        public LocalDateTime getFullSyncAt() { return fullSyncAt; }
+    }
+}
@@ -0,0 +1,261 @@
+package com.insurance.management.util;
+
+import com.insurance.management.entity.User;
+import com.insurance.management.event.UserChangeEvent;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JWT Token Provider - Issues and verifies signed web/mobile tokens using app.jwt settings
+ * Signed tokens carry userId, role, state, token-type and account-version claims; callers compare
+ * the account version with the current user. Legacy base64 tokens are still accepted until the configured cutoff.
+ */
+@Component
+@Slf4j
+public class JwtTokenProvider {
+
+    public static final String TOKEN_TYPE_WEB = "web";
+    public static final String TOKEN_TYPE_MOBILE = "mobile";
+
+    private static final String ISSUER = "insurance-management-api";
+
+    private final SecretKey signingKey;
+    private final long webExpirationMillis;
+    private final long mobileExpirationMillis;
+    private final boolean signedTokensEnabled;
+    private final LocalDateTime legacyTokensAcceptedUntil;
+
+    // userId -> revocation second (epoch millis, whole seconds like iat); tokens issued in or before that
+    // second are rejected, and tokens issued afterwards start at the next second (local to this instance)
+    private final Map<Long, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    public JwtTokenProvider(@Value("${app.jwt.secret}") String secret,
+                            @Value("${app.jwt.expiration:86400000}") long webExpirationMillis,
+                            @Value("${app.jwt.mobile-expiration:604800000}") long mobileExpirationMillis,
+                            @Value("${app.jwt.signed-tokens-enabled:false}") boolean signedTokensEnabled,
+                            @Value("${app.jwt.legacy-tokens-accepted-until:}") String legacyTokensAcceptedUntil) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.webExpirationMillis = webExpirationMillis;
+        this.mobileExpirationMillis = mobileExpirationMillis;
+        this.signedTokensEnabled = signedTokensEnabled;
+        this.legacyTokensAcceptedUntil = legacyTokensAcceptedUntil == null || legacyTokensAcceptedUntil.isBlank()
+                ? null : LocalDateTime.parse(legacyTokensAcceptedUntil.trim());
+
+        log.info("🎫 JWT token provider initialized - signed tokens: {}, legacy tokens accepted until: {}",
+                signedTokensEnabled ? "enabled" : "disabled",
+                this.legacyTokensAcceptedUntil != null ? this.legacyTokensAcceptedUntil : "no cutoff");
+    }
+
+    /**
+     * Whether new logins should be issued signed tokens
+     */
+    public boolean isSignedTokensEnabled() {
+        return signedTokensEnabled;
+    }
+
+    /**
+     * Whether legacy base64 "userId:username:state:timestamp" tokens are still accepted
+     */
+    public boolean isLegacyTokenAccepted() {
+        return legacyTokensAcceptedUntil == null || LocalDateTime.now().isBefore(legacyTokensAcceptedUntil);
+    }
+
+    /**
+     * Signed tokens are compact JWS strings (three dot-separated parts); legacy tokens are plain base64
+     */
+    public boolean isSignedToken(String authHeader) {
+        if (authHeader == null) {
+            return false;
+        }
+        String token = stripBearer(authHeader);
+        return token.chars().filter(ch -> ch == '.').count() == 2;
+    }
+
+    /**
+     * Generate signed web token
+     */
+    public String generateWebToken(User user) {
+        return "Bearer " + buildToken(user, user.getLocationState(), TOKEN_TYPE_WEB, webExpirationMillis);
+    }
+
+    /**
+     * Generate signed mobile token for the given session state
+     */
+    public String generateMobileToken(User user, String state) {
+        return "Bearer " + buildToken(user, state, TOKEN_TYPE_MOBILE, mobileExpirationMillis);
+    }
+
+    /**
+     * Verify signature, expiry and revocation of a signed token
+     * Returns null when the token is invalid - never touches the database
+     */
+    public TokenClaims parseToken(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            log.warn("🔐 Invalid token format - missing Bearer prefix");
+            return null;
+        }
+
+        try {
+            Claims claims = Jwts.parser()
+                    .verifyWith(signingKey)
+                    .requireIssuer(ISSUER)
+                    .build()
+                    .parseSignedClaims(stripBearer(authHeader))
+                    .getPayload();
+
+            TokenClaims tokenClaims = new TokenClaims();
+            tokenClaims.setUserId(Long.parseLong(claims.getSubject()));
+            tokenClaims.setUsername(claims.get("username", String.class));
+            tokenClaims.setRole(claims.get("role", String.class));
+            tokenClaims.setState(claims.get("state", String.class));
+            tokenClaims.setLocationState(claims.get("location_state", String.class));
+            tokenClaims.setAccountVersion(claims.get("ver", String.class));
+            tokenClaims.setTokenType(claims.get("typ", String.class));
+            tokenClaims.setIssuedAt(claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L);
+
+            Long revokedAt = revokedBefore.get(tokenClaims.getUserId());
+            if (revokedAt != null && tokenClaims.getIssuedAt() <= revokedAt) {
+                log.warn("🔐 Token revoked for user ID: {}", tokenClaims.getUserId());
+                return null;
+            }
+
+            return tokenClaims;
+
+        } catch (JwtException | IllegalArgumentException e) {
+            log.warn("🔐 Signed token validation failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reject every token issued to the user before now (lock, deactivate, password change)
+     */
+    public void revokeTokens(Long userId) {
+        if (userId != null) {
+            revokedBefore.put(userId, truncateToSecond(System.currentTimeMillis()));
+            log.info("🚫 Revoked outstanding tokens for user ID: {}", userId);
+        }
+    }
+
+    /**
+     * Revoke once a lock, deactivation or password change has committed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChange(UserChangeEvent event) {
+        if (event.isRevokeTokens()) {
+            event.getUsers().forEach(user -> revokeTokens(user.getId()));
+        }
+    }
+
+    /**
+     * Drop revocations older than the longest token lifetime - runs every hour
+     */
+    @Scheduled(fixedRate = 3600000) // 1 hour
+    public void purgeExpiredRevocations() {
+        long cutoff = System.currentTimeMillis() - Math.max(webExpirationMillis, mobileExpirationMillis);
+        revokedBefore.values().removeIf(revokedAt -> revokedAt < cutoff);
+    }
+
+    /**
+     * Account version - changes whenever a field that affects authorization changes
+     */
+    public static String accountVersion(User user) {
+        int hash = Objects.hash(
+                user.getIsActive(),
+                user.getIsLocked(),
+                truncate(user.getAccountLockedUntil()),
+                truncate(user.getPasswordChangedAt()),
+                user.getUserRole() != null ? user.getUserRole().name() : null); // Enum hashCode is not stable across JVMs
+        return Integer.toHexString(hash);
+    }
+
+    private String buildToken(User user, String state, String tokenType, long expirationMillis) {
+        long now = System.currentTimeMillis();
+        // A login right after a revocation (e.g. a PIN change) would share its second and read as revoked
+        Long revokedAt = revokedBefore.get(user.getId());
+        if (revokedAt != null && truncateToSecond(now) <= revokedAt) {
+            now = revokedAt + 1000;
+        }
+        return Jwts.builder()
+                .issuer(ISSUER)
+                .subject(String.valueOf(user.getId()))
+                .claim("username", user.getUsername())
+                .claim("role", user.getUserRole() != null ? user.getUserRole().name() : User.UserRole.USER.name())
+                .claim("state", state != null ? state : "")
+                .claim("location_state", user.getLocationState())
+                .claim("ver", accountVersion(user))
+                .claim("typ", tokenType)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expirationMillis))
+                .signWith(signingKey)
+                .compact();
+    }
+
+    private static long truncateToSecond(long epochMillis) {
+        return epochMillis - Math.floorMod(epochMillis, 1000L);
+    }
+
+    private static String stripBearer(String authHeader) {
+        return authHeader.startsWith("Bearer ") ? authHeader.substring("Bearer ".length()).trim() : authHeader.trim();
+    }
+
+    private static LocalDateTime truncate(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.truncatedTo(ChronoUnit.SECONDS) : null;
+    }
+
+    /**
+     * Verified claims of a signed token
+     */
+    public static class TokenClaims {
+        private Long userId;
+        private String username;
+        private String role;
+        private String state;
+        private String locationState;
+        private String accountVersion;
+        private String tokenType;
+        private long issuedAt;
+
+        // Getters and setters
+        public Long getUserId() { return userId; }
+        public void setUserId(Long userId) { this.userId = userId; }
+
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+
+        public String getRole() { return role; }
+        public void setRole(String role) { this.role = role; }
+
+        public String getState() { return state; }
+        public void setState(String state) { this.state = state; }
+
+        public String getLocationState() { return locationState; }
+        public void setLocationState(String locationState) { this.locationState = locationState; }
+
+        public String getAccountVersion() { return accountVersion; }
+        public void setAccountVersion(String accountVersion) { this.accountVersion = accountVersion; }
+
+        public String getTokenType() { return tokenType; }
+        public void setTokenType(String tokenType) { this.tokenType = tokenType; }
+
+        public long getIssuedAt() { return issuedAt; }
+        public void setIssuedAt(long issuedAt) { this.issuedAt = issuedAt; }
+    }
+}
@@ -0,0 +1,49 @@
+package com.insurance.management.util;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Latency Benchmark - Minimal in-process timer for comparing read paths from the debug endpoints
+ * Runs a few warm-up calls, then times each iteration and reports avg/p50/p95/max in milliseconds
+ */
+public final class LatencyBenchmark {
+
+    private LatencyBenchmark() {
+    }
+
+    /**
+     * Time the task and return summary statistics
+     */
+    public static Map<String, Object> run(int warmupIterations, int iterations, Runnable task) {
+        for (int i = 0; i < warmupIterations; i++) {
+            task.run();
+        }
+
+        long[] samples = new long[Math.max(1, iterations)];
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            task.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("iterations", samples.length);
+        stats.put("avg_ms", toMillis((long) Arrays.stream(samples).average().orElse(0)));
+        stats.put("p50_ms", toMillis(percentile(samples, 50)));
+        stats.put("p95_ms", toMillis(percentile(samples, 95)));
+        stats.put("max_ms", toMillis(samples[samples.length - 1]));
+        return stats;
+    }
+
+    private static long percentile(long[] sortedSamples, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sortedSamples.length) - 1;
+        return sortedSamples[Math.max(0, Math.min(index, sortedSamples.length - 1))];
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
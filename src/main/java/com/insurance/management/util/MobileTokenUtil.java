@@ -21,6 +21,7 @@ import java.util.Optional;
 public class MobileTokenUtil {
 
     private final UserService userService;
+    private final JwtTokenProvider jwtTokenProvider;
 
     /**
      * Decode and validate mobile authentication token
@@ -82,15 +83,93 @@ public class MobileTokenUtil {
      * Validate token and return user if valid
      */
     public User validateTokenAndGetUser(HttpServletRequest request) {
-        String authHeader = extractTokenFromRequest(request);
-        TokenData tokenData = decodeToken(authHeader);
+        return validateToken(extractTokenFromRequest(request));
+    }
+
+    /**
+     * Validate an Authorization header value and return user if valid
+     * Both signed and legacy tokens resolve the user through the principal cache;
+     * legacy tokens are only accepted while the compatibility window is open
+     */
+    public User validateToken(String authHeader) {
+        if (jwtTokenProvider.isSignedToken(authHeader)) {
+            return validateSignedToken(authHeader, JwtTokenProvider.TOKEN_TYPE_MOBILE);
+        }
+        
+        if (!jwtTokenProvider.isLegacyTokenAccepted()) {
+            log.warn("🔐 Legacy token rejected - compatibility window has closed");
+            return null;
+        }
+        
+        return loadTokenUser(decodeToken(authHeader));
+    }
+
+    /**
+     * Validate a web (admin panel) Authorization header value and return user if valid
+     * Signed tokens must be web tokens; legacy web tokens are Bearer base64(userId:username:timestamp)
+     */
+    public User validateWebToken(String authHeader) {
+        if (jwtTokenProvider.isSignedToken(authHeader)) {
+            return validateSignedToken(authHeader, JwtTokenProvider.TOKEN_TYPE_WEB);
+        }
         
+        if (!jwtTokenProvider.isLegacyTokenAccepted()) {
+            log.warn("🔐 Legacy token rejected - compatibility window has closed");
+            return null;
+        }
+        
+        return loadTokenUser(decodeWebToken(authHeader));
+    }
+
+    /**
+     * Decode a legacy web token - same checks as decodeToken, without the state part
+     */
+    public TokenData decodeWebToken(String token) {
+        try {
+            if (token == null || !token.startsWith("Bearer ")) {
+                log.warn("🔐 Invalid token format - missing Bearer prefix");
+                return null;
+            }
+            
+            String decoded = new String(Base64.getDecoder().decode(token.replace("Bearer ", "")), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(":");
+            
+            if (parts.length != 3) {
+                log.warn("🔐 Invalid web token format - parts: {}", parts.length);
+                return null;
+            }
+            
+            long timestamp = Long.parseLong(parts[2]);
+            long tokenAge = System.currentTimeMillis() - timestamp;
+            long maxAge = 24 * 60 * 60 * 1000; // 24 hours in milliseconds
+            
+            if (tokenAge > maxAge) {
+                log.warn("🔐 Token expired - age: {}ms, max: {}ms", tokenAge, maxAge);
+                return null;
+            }
+            
+            TokenData tokenDataObj = new TokenData();
+            tokenDataObj.setUserId(Long.parseLong(parts[0]));
+            tokenDataObj.setUsername(parts[1]);
+            tokenDataObj.setTimestamp(timestamp);
+            return tokenDataObj;
+            
+        } catch (Exception e) {
+            log.warn("🔐 Web token decoding failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Resolve the user behind a decoded legacy token - must exist, be active and match the username
+     */
+    private User loadTokenUser(TokenData tokenData) {
         if (tokenData == null) {
             return null;
         }
         
-        // Verify user exists and is active
-        Optional<User> userOptional = userService.findById(tokenData.getUserId());
+        // Verify user exists and is active (served from the principal cache when hot)
+        Optional<User> userOptional = userService.findPrincipalById(tokenData.getUserId());
         if (userOptional.isEmpty()) {
             log.warn("🔐 Token validation failed - User not found: {}", tokenData.getUserId());
             return null;
@@ -113,11 +192,47 @@ public class MobileTokenUtil {
         return user;
     }
 
+    /**
+     * Validate a signed token of the expected type - signature and claims first, then the current account
+     * (from the principal cache when hot) so locked, deactivated or re-passworded users are
+     * rejected on every instance, not only the one that revoked their tokens
+     */
+    private User validateSignedToken(String authHeader, String expectedType) {
+        JwtTokenProvider.TokenClaims claims = jwtTokenProvider.parseToken(authHeader);
+        if (claims == null) {
+            return null;
+        }
+        
+        if (!expectedType.equals(claims.getTokenType())) {
+            log.warn("🔐 Token validation failed - Expected {} token, got typ: {}", expectedType, claims.getTokenType());
+            return null;
+        }
+        
+        Optional<User> userOptional = userService.findPrincipalById(claims.getUserId());
+        if (userOptional.isEmpty()) {
+            log.warn("🔐 Token validation failed - User not found: {}", claims.getUserId());
+            return null;
+        }
+        
+        User user = userOptional.get();
+        if (!JwtTokenProvider.accountVersion(user).equals(claims.getAccountVersion()) || !user.isAccountActive()) {
+            log.warn("🔐 Token validation failed - Account changed since token was issued: {}", user.getUsername());
+            return null;
+        }
+        
+        log.debug("✅ Signed token validation successful for user: {}", user.getUsername());
+        return user;
+    }
+
     /**
      * Generate mobile authentication token
      * Matches the token generation logic from Node.js (if needed for login endpoints)
      */
     public String generateToken(User user) {
+        if (jwtTokenProvider.isSignedTokensEnabled()) {
+            return jwtTokenProvider.generateMobileToken(user, user.getLocationState());
+        }
+        
         long timestamp = System.currentTimeMillis();
         String tokenString = String.format("%d:%s:%s:%d", 
                 user.getId(), 
@@ -0,0 +1,23 @@
+-- V1: Daily activity rollup (SQL Server)
+-- One row per IST day x customer state x agent x resulting status; update_count counts every status change.
+-- Maintained by DailyActivityRollupService; seed history with POST /api/admin/metrics/rollup/backfill?days=90
+
+IF OBJECT_ID('dbo.daily_activity_rollup', 'U') IS NULL
+BEGIN
+    CREATE TABLE dbo.daily_activity_rollup (
+        id              BIGINT IDENTITY(1,1) NOT NULL PRIMARY KEY,
+        activity_date   DATE          NOT NULL,
+        state           NVARCHAR(100) NOT NULL,
+        user_id         BIGINT        NOT NULL,
+        customer_status NVARCHAR(50)  NOT NULL,
+        is_closed       BIT           NOT NULL,
+        update_count    BIGINT        NOT NULL,
+        updated_at      DATETIME2     NOT NULL,
+        CONSTRAINT ux_daily_activity_rollup_key
+            UNIQUE (activity_date, state, user_id, customer_status, is_closed)
+    );
+
+    CREATE INDEX ix_daily_activity_rollup_date_state
+        ON dbo.daily_activity_rollup (activity_date, state)
+        INCLUDE (is_closed, update_count);
+END
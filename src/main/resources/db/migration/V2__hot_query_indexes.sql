@@ -0,0 +1,45 @@
+-- V2: Indexes for the hot repository access paths (SQL Server / Azure SQL)
+-- Every statement is guarded so the script is safe on databases that already have some of these indexes.
+-- ONLINE builds keep the customers table writable while they run.
+-- Requires SQL Server Enterprise / Developer edition or Azure SQL: the index builds use ONLINE = ON, which other
+-- editions reject. Run with mvn -Pmigrate flyway:migrate ahead of the deploy, not at application startup.
+
+-- Allocated queue, open counts and follow-ups:
+-- assigned_to = ? AND (is_closed = 0 OR is_closed IS NULL) AND customer_status ... AND reminder_date <= ?
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE object_id = OBJECT_ID('dbo.customers') AND name = 'ix_customers_assigned_open')
+    CREATE INDEX ix_customers_assigned_open
+        ON dbo.customers (assigned_to, is_closed, customer_status, reminder_date)
+        INCLUDE (last_status_updated, status_updated_by, state)
+        WITH (ONLINE = ON);
+
+-- Submissions, per-agent analytics and the leaderboard:
+-- status_updated_by = ? [AND is_closed = 1] ORDER BY last_status_updated DESC
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE object_id = OBJECT_ID('dbo.customers') AND name = 'ix_customers_updated_by')
+    CREATE INDEX ix_customers_updated_by
+        ON dbo.customers (status_updated_by, last_status_updated)
+        INCLUDE (is_closed, customer_status, state, assigned_to)
+        WITH (ONLINE = ON);
+
+-- State summaries, unassigned-by-state pages and assignment by state:
+-- state = ? AND assigned_to [IS NULL | = ?]
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE object_id = OBJECT_ID('dbo.customers') AND name = 'ix_customers_state_assigned')
+    CREATE INDEX ix_customers_state_assigned
+        ON dbo.customers (state, assigned_to)
+        INCLUDE (is_closed, customer_status, created_at)
+        WITH (ONLINE = ON);
+
+-- Login and admin lookups: username = ? / email = ?
+-- The unique constraints from the original schema already index these on most databases
+IF NOT EXISTS (
+    SELECT 1 FROM sys.indexes i
+    JOIN sys.index_columns ic ON ic.object_id = i.object_id AND ic.index_id = i.index_id AND ic.key_ordinal = 1
+    JOIN sys.columns col ON col.object_id = ic.object_id AND col.column_id = ic.column_id
+    WHERE i.object_id = OBJECT_ID('dbo.app_users') AND col.name = 'username')
+    CREATE INDEX ix_app_users_username ON dbo.app_users (username);
+
+IF NOT EXISTS (
+    SELECT 1 FROM sys.indexes i
+    JOIN sys.index_columns ic ON ic.object_id = i.object_id AND ic.index_id = i.index_id AND ic.key_ordinal = 1
+    JOIN sys.columns col ON col.object_id = ic.object_id AND col.column_id = ic.column_id
+    WHERE i.object_id = OBJECT_ID('dbo.app_users') AND col.name = 'email')
+    CREATE INDEX ix_app_users_email ON dbo.app_users (email);
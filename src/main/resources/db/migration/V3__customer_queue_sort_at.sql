@@ -0,0 +1,24 @@
+-- V3: Home queue sort key as a computed column (SQL Server / Azure SQL)
+-- queue_sort_at = reminder_date for follow-ups with a reminder, otherwise last_status_updated, else 1900-01-01.
+-- The database derives it on every write, whoever the writer is, so the allocated queue can read
+-- (assigned_to, queue_sort_at DESC, id DESC) in index order instead of sorting the agent's book.
+-- Customer.queueSortKey mirrors the expression for keyset cursors.
+-- Requires SQL Server Enterprise / Developer edition or Azure SQL: the index builds use ONLINE = ON, which other
+-- editions reject. Run with mvn -Pmigrate flyway:migrate ahead of the deploy, not at application startup.
+
+-- Deterministic (the floor uses style 112) and precise, so it can be indexed without PERSISTED: adding the
+-- column is metadata-only, and the index below stores the values, so no customers row is rewritten
+IF COL_LENGTH('dbo.customers', 'queue_sort_at') IS NULL
+    ALTER TABLE dbo.customers ADD queue_sort_at AS
+        COALESCE(CASE WHEN customer_status = 'follow_up' AND reminder_date IS NOT NULL
+                      THEN reminder_date ELSE last_status_updated END,
+                 CONVERT(DATETIME2, '19000101', 112));
+GO
+
+-- Allocated queue pages and keyset cursors:
+-- assigned_to = ? [AND open filter] [AND (queue_sort_at, id) < cursor] ORDER BY queue_sort_at DESC, id DESC
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE object_id = OBJECT_ID('dbo.customers') AND name = 'ix_customers_assigned_queue')
+    CREATE INDEX ix_customers_assigned_queue
+        ON dbo.customers (assigned_to, queue_sort_at DESC, id DESC)
+        INCLUDE (is_closed, customer_status, reminder_date)
+        WITH (ONLINE = ON);
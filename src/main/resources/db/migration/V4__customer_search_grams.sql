@@ -0,0 +1,33 @@
+-- V4: Trigram index for customer search (SQL Server / Azure SQL)
+-- CustomerSearchService fills these tables in the background and keeps them current from customers.updated_at.
+-- Requires SQL Server Enterprise / Developer edition or Azure SQL: the index builds use ONLINE = ON, which other
+-- editions reject. Run with mvn -Pmigrate flyway:migrate ahead of the deploy, not at application startup.
+
+-- One row per distinct 3-character gram of a customer's normalized name, mobile, registration, chassis
+-- and engine numbers. Binary collation: grams are already lower-cased and must compare exactly.
+IF OBJECT_ID('dbo.customer_search_grams', 'U') IS NULL
+    CREATE TABLE dbo.customer_search_grams (
+        gram NVARCHAR(3) COLLATE Latin1_General_100_BIN2 NOT NULL,
+        customer_id BIGINT NOT NULL,
+        CONSTRAINT pk_customer_search_grams PRIMARY KEY (gram, customer_id)
+    );
+
+-- Re-indexing a customer deletes its grams by customer_id
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE object_id = OBJECT_ID('dbo.customer_search_grams') AND name = 'ix_customer_search_grams_customer')
+    CREATE INDEX ix_customer_search_grams_customer ON dbo.customer_search_grams (customer_id);
+
+-- Single-row indexer watermark: highest customer id indexed, and the (updated_at, id) change cursor
+IF OBJECT_ID('dbo.customer_search_state', 'U') IS NULL
+    CREATE TABLE dbo.customer_search_state (
+        id INT NOT NULL CONSTRAINT pk_customer_search_state PRIMARY KEY,
+        last_customer_id BIGINT NOT NULL,
+        last_updated_at DATETIME2 NOT NULL,
+        last_updated_id BIGINT NOT NULL,
+        updated_at DATETIME2 NOT NULL
+    );
+
+-- Change feed for the indexer: updated_at > ? ORDER BY updated_at, id
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE object_id = OBJECT_ID('dbo.customers') AND name = 'ix_customers_updated_at')
+    CREATE INDEX ix_customers_updated_at
+        ON dbo.customers (updated_at, id)
+        WITH (ONLINE = ON);
@@ -0,0 +1,29 @@
+-- V5: Reversed mobile / registration numbers for suffix lookups (SQL Server / Azure SQL)
+-- "Ends with 1234" becomes mobile_rev LIKE '4321%', an index range seek instead of a scan of every customer.
+-- Spaces, dashes and '+' are dropped first so "98450 01234" and "+91-9845001234" both end in "1234".
+-- Requires SQL Server Enterprise / Developer edition or Azure SQL: the index builds use ONLINE = ON, which other
+-- editions reject. Run with mvn -Pmigrate flyway:migrate ahead of the deploy, not at application startup.
+
+-- Deterministic computed columns: adding them is metadata-only, and the indexes below store the values,
+-- so every writer keeps them current without application code
+IF COL_LENGTH('dbo.customers', 'mobile_rev') IS NULL
+    ALTER TABLE dbo.customers ADD mobile_rev AS
+        CAST(REVERSE(REPLACE(REPLACE(REPLACE(mobilenumber, ' ', ''), '-', ''), '+', '')) AS NVARCHAR(32));
+
+IF COL_LENGTH('dbo.customers', 'registration_rev') IS NULL
+    ALTER TABLE dbo.customers ADD registration_rev AS
+        CAST(REVERSE(REPLACE(REPLACE(registrationnum, ' ', ''), '-', '')) AS NVARCHAR(32));
+GO
+
+-- Suffix lookups: *_rev LIKE 'reversed%' [AND assigned_to = ? | state = ?] ORDER BY *_rev
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE object_id = OBJECT_ID('dbo.customers') AND name = 'ix_customers_mobile_rev')
+    CREATE INDEX ix_customers_mobile_rev
+        ON dbo.customers (mobile_rev)
+        INCLUDE (assigned_to, state)
+        WITH (ONLINE = ON);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE object_id = OBJECT_ID('dbo.customers') AND name = 'ix_customers_registration_rev')
+    CREATE INDEX ix_customers_registration_rev
+        ON dbo.customers (registration_rev)
+        INCLUDE (assigned_to, state)
+        WITH (ONLINE = ON);